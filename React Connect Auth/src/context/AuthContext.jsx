@@ -56,6 +56,8 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // Revoke server-side without waiting; local state is cleared either way
+    authAPI.logout().catch(() => {});
     clearSession();
     setUser(null);
   };
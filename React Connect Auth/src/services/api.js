@@ -79,8 +79,9 @@ api.interceptors.response.use(
         const resp = await api.post('/auth/refresh-token', null, {
           headers: { Authorization: `Bearer ${storedRefresh}` },
         });
-        const { accessToken: newAccess } = resp.data;
-        accessToken = newAccess;
+        // Refresh tokens rotate on every use; the old one is now spent
+        const { accessToken: newAccess, refreshToken: newRefresh } = resp.data;
+        setSession({ accessToken: newAccess, refreshToken: newRefresh });
         processQueue(null, newAccess);
         originalRequest.headers.Authorization = `Bearer ${newAccess}`;
         return api.request(originalRequest);
@@ -106,6 +107,8 @@ export const authAPI = {
   forgotPassword: (data) => api.post('/auth/forgot-password', data),
   resetPassword: (data) => api.post('/auth/reset-password', data),
   refreshToken: (refreshToken) => api.post('/auth/refresh-token', { refreshToken }),
+  logout: () => api.post('/auth/logout', { refreshToken: localStorage.getItem(refreshTokenKey) }),
+  logoutAll: () => api.post('/auth/logout-all'),
 };
 
 export const userAPI = {
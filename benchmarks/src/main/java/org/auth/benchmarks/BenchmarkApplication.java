@@ -0,0 +1,49 @@
+package org.auth.benchmarks;
+
+import org.auth.fullauthenticationotp.FullAuthenticationOtpApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Boots the real application context against a private in-memory H2 database,
+// so benchmarks exercise the actual beans, JPA mappings and SQL.
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String name) {
+        return start(name, Map.of());
+    }
+
+    static ConfigurableApplicationContext start(String name, Map<String, String> overrides) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("jwt.secret", "benchmarkSecretKeyThatIsLongEnoughForHmacSha512Signatures0123456789");
+        properties.put("jwt.refresh-secret", "benchmarkRefreshTokenSecret");
+        properties.put("spring.mail.host", "localhost");
+        properties.put("spring.mail.username", "bench");
+        properties.put("spring.mail.password", "bench");
+        properties.put("introspection.client-secret", "benchmark");
+        properties.put("warmup.enabled", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.putAll(overrides);
+
+        // Command-line arguments outrank the application.properties packaged in the app jar
+        List<String> args = new ArrayList<>();
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return new SpringApplicationBuilder(FullAuthenticationOtpApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+}
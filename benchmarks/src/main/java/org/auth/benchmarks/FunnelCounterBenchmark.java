@@ -0,0 +1,43 @@
+package org.auth.benchmarks;
+
+import org.auth.fullauthenticationotp.metrics.AuthFunnelStats;
+import org.auth.fullauthenticationotp.metrics.SlidingWindowCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cost of counting one funnel event with 64 threads hammering the same counter, as on a busy login
+// endpoint. sharedAtomicLong is the naive alternative: every increment contends on one cache line.
+// slidingWindow is one LongAdder-bucketed window; funnelEvent records into all three windows, as
+// AuthService does. Compare with a single thread by overriding -t 1.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class FunnelCounterBenchmark {
+
+    private final AtomicLong sharedAtomicLong = new AtomicLong();
+    private final SlidingWindowCounter slidingWindow =
+            new SlidingWindowCounter(Duration.ofMinutes(1), 60, System::currentTimeMillis);
+    private final AuthFunnelStats funnelStats = new AuthFunnelStats();
+
+    @Benchmark
+    public long sharedAtomicLong() {
+        return sharedAtomicLong.incrementAndGet();
+    }
+
+    @Benchmark
+    public void slidingWindow() {
+        slidingWindow.increment();
+    }
+
+    @Benchmark
+    public void funnelEvent() {
+        funnelStats.record(AuthFunnelStats.Event.LOGIN);
+    }
+}
@@ -0,0 +1,112 @@
+package org.auth.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.auth.fullauthenticationotp.metrics.AuthMetrics;
+import org.auth.fullauthenticationotp.security.JwtAuthenticationFilter;
+import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.auth.fullauthenticationotp.security.TokenRevocationService;
+import org.auth.fullauthenticationotp.service.UserActivityTracker;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JwtAuthenticationFilter per request, with the real token provider and revocation list but a
+// stubbed UserDetailsService, so the numbers exclude the database. Requests are reused and the
+// security context is cleared after each call, as the servlet container would.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private ConfigurableApplicationContext context;
+    private JwtAuthenticationFilter filter;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private MockHttpServletRequest validRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletRequest tamperedRequest;
+    private MockHttpServletRequest revokedRequest;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("filter");
+        JwtTokenProvider tokenProvider = context.getBean(JwtTokenProvider.class);
+        TokenRevocationService revocationService = context.getBean(TokenRevocationService.class);
+        UserDetails user = new User("benchmark.user@example.com", "unused",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        filter = new JwtAuthenticationFilter(tokenProvider, username -> user, revocationService,
+                new AuthMetrics(new SimpleMeterRegistry()), context.getBean(UserActivityTracker.class));
+
+        String token = tokenProvider.generateToken(user.getUsername(), List.of("ROLE_USER"));
+        String revoked = tokenProvider.generateToken(user.getUsername(), List.of("ROLE_USER"));
+        revocationService.revoke(tokenProvider.verify(revoked));
+
+        validRequest = request(token);
+        anonymousRequest = request(null);
+        // Flip a character in the middle of the signature; the last ones may only carry unused bits
+        int middle = (token.lastIndexOf('.') + 1 + token.length()) / 2;
+        String tampered = token.substring(0, middle) + (token.charAt(middle) == 'A' ? 'B' : 'A')
+                + token.substring(middle + 1);
+        if (tokenProvider.validateToken(tampered)) {
+            throw new IllegalStateException("Tampered token still verifies");
+        }
+        tamperedRequest = request(tampered);
+        revokedRequest = request(revoked);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void validToken() throws ServletException, IOException {
+        run(validRequest);
+    }
+
+    @Benchmark
+    public void noToken() throws ServletException, IOException {
+        run(anonymousRequest);
+    }
+
+    @Benchmark
+    public void tamperedToken() throws ServletException, IOException {
+        run(tamperedRequest);
+    }
+
+    @Benchmark
+    public void revokedToken() throws ServletException, IOException {
+        run(revokedRequest);
+    }
+
+    private void run(MockHttpServletRequest request) throws ServletException, IOException {
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        request.removeAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE);
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/profile");
+        request.setRemoteAddr("10.0.0.1");
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+package org.auth.benchmarks;
+
+import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// JwtTokenProvider issue and validate paths for each signing algorithm, on the real bean.
+// HMAC uses the default codec; TokenSigningBenchmark compares the fast and jjwt codecs.
+// Run with -prof gc for bytes allocated per operation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final List<String> ROLES = List.of("ROLE_USER");
+
+    @Param({"HMAC", "EdDSA", "ES256"})
+    public String algorithm;
+
+    private ConfigurableApplicationContext context;
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> properties = switch (algorithm) {
+            case "EdDSA" -> keystore("ed25519");
+            case "ES256" -> keystore("es256");
+            default -> Map.of();
+        };
+        context = BenchmarkApplication.start("provider-" + algorithm, properties);
+        tokenProvider = context.getBean(JwtTokenProvider.class);
+        token = tokenProvider.generateToken("benchmark.user@example.com", ROLES);
+    }
+
+    // The app's test keystores, packaged into the benchmarks jar
+    private Map<String, String> keystore(String name) {
+        return Map.of("jwt.signing-algorithm", algorithm,
+                "jwt.keystore.location", "classpath:jwt/" + name + ".p12",
+                "jwt.keystore.password", "changeit");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken("benchmark.user@example.com", ROLES);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return tokenProvider.getUsernameFromToken(token);
+    }
+}
@@ -0,0 +1,79 @@
+package org.auth.benchmarks;
+
+import jakarta.mail.internet.MimeMessage;
+import org.auth.fullauthenticationotp.mail.MailTemplate;
+import org.auth.fullauthenticationotp.mail.MailTemplates;
+import org.auth.fullauthenticationotp.mail.RenderedMail;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Cost of rendering one OTP email (subject, text and HTML) in a locale variant, per message:
+// precompiled is MailTemplates as EmailService uses it; reparse substitutes into the template
+// sources on every message, as string-building code or an uncached template engine would.
+// mimeMessage adds building the multipart MimeMessage, to show what share rendering has of it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailRenderBenchmark {
+
+    private static final Locale LOCALE = Locale.FRANCE;
+    private static final String CODE = "482913";
+    private static final String MINUTES = "5";
+
+    private MailTemplates mailTemplates;
+    private String subjectSource;
+    private String textSource;
+    private String htmlSource;
+    private JavaMailSenderImpl mailSender;
+
+    @Setup
+    public void setUp() throws IOException {
+        mailTemplates = new MailTemplates();
+        subjectSource = source("otp-verification_fr.subject").strip();
+        textSource = source("otp-verification_fr.txt");
+        htmlSource = source("otp-verification_fr.html");
+        mailSender = new JavaMailSenderImpl();
+    }
+
+    @Benchmark
+    public RenderedMail precompiled() {
+        return mailTemplates.render(MailTemplate.OTP_VERIFICATION, LOCALE, CODE, MINUTES);
+    }
+
+    @Benchmark
+    public RenderedMail reparse() {
+        return new RenderedMail(substitute(subjectSource), substitute(textSource), substitute(htmlSource));
+    }
+
+    @Benchmark
+    public MimeMessage mimeMessage() throws Exception {
+        RenderedMail mail = mailTemplates.render(MailTemplate.OTP_VERIFICATION, LOCALE, CODE, MINUTES);
+        // As JavaMailSenderImpl.send builds it; a bare MimeMessage would re-read mime.types every time
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, StandardCharsets.UTF_8.name());
+        helper.setTo("benchmark.user@example.com");
+        helper.setSubject(mail.subject());
+        helper.setText(mail.text(), mail.html());
+        return message;
+    }
+
+    private static String substitute(String source) {
+        return source.replace("{{code}}", CODE).replace("{{minutes}}", MINUTES);
+    }
+
+    private static String source(String name) throws IOException {
+        try (InputStream in = MailTemplates.class.getClassLoader().getResourceAsStream("mail/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.auth.benchmarks;
+
+import org.auth.fullauthenticationotp.service.OTPService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.AopTestUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+// OTPService.generateOTPCode on the real bean (otp.length from application.properties).
+// The method is private; a method handle reaches it without widening its visibility.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OtpCodeBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private OTPService otpService;
+    private MethodHandle generateOTPCode;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        context = BenchmarkApplication.start("otp-code");
+        // The bean is a transactional proxy; a private method has to run on the target to see its fields
+        otpService = AopTestUtils.getUltimateTargetObject(context.getBean(OTPService.class));
+        generateOTPCode = MethodHandles.privateLookupIn(OTPService.class, MethodHandles.lookup())
+                .findVirtual(OTPService.class, "generateOTPCode", MethodType.methodType(String.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateOTPCode() throws Throwable {
+        return (String) generateOTPCode.invokeExact(otpService);
+    }
+}
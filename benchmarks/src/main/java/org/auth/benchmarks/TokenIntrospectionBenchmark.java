@@ -0,0 +1,82 @@
+package org.auth.benchmarks;
+
+import org.auth.fullauthenticationotp.dto.TokenIntrospectionResult;
+import org.auth.fullauthenticationotp.model.Role;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.repository.RoleRepository;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.auth.fullauthenticationotp.service.RefreshSessionService;
+import org.auth.fullauthenticationotp.service.TokenIntrospectionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Gateway-style introspection of 100 tokens (half access, half refresh), either as one
+// batch or as 100 single-token calls. Scores are per token, so they compare directly.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenIntrospectionBenchmark {
+
+    private static final int TOKENS = 100;
+
+    private ConfigurableApplicationContext context;
+    private TokenIntrospectionService introspectionService;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("introspection");
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        RefreshSessionService refreshSessionService = context.getBean(RefreshSessionService.class);
+        Role userRole = context.getBean(RoleRepository.class).findByName(RoleType.ROLE_USER).orElseThrow();
+        JwtTokenProvider tokenProvider = context.getBean(JwtTokenProvider.class);
+        introspectionService = context.getBean(TokenIntrospectionService.class);
+
+        tokens = new ArrayList<>(TOKENS);
+        for (int i = 0; i < TOKENS / 2; i++) {
+            User user = userRepository.save(User.builder()
+                    .email("user" + i + "@example.com")
+                    .password("unused")
+                    .firstName("Bench")
+                    .lastName("User")
+                    .emailVerified(true)
+                    .enabled(true)
+                    .roles(Set.of(userRole))
+                    .build());
+            tokens.add(tokenProvider.generateToken(user.getEmail(), List.of(RoleType.ROLE_USER.name())));
+            tokens.add(refreshSessionService.create(user));
+        }
+        Collections.shuffle(tokens);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public List<TokenIntrospectionResult> batch() {
+        return introspectionService.introspect(tokens);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void perToken(Blackhole blackhole) {
+        for (String token : tokens) {
+            blackhole.consume(introspectionService.introspect(List.of(token)));
+        }
+    }
+}
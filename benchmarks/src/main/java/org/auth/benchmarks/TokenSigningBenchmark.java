@@ -0,0 +1,49 @@
+package org.auth.benchmarks;
+
+import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Access-token issuing through JwtTokenProvider with the built-in HS256 signer (jwt.codec=fast)
+// and with the jjwt builder (jwt.codec=jjwt). Run with -prof gc for bytes allocated per token.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenSigningBenchmark {
+
+    private static final List<String> ROLES = List.of("ROLE_USER");
+
+    @Param({"fast", "jjwt"})
+    public String codec;
+
+    private ConfigurableApplicationContext context;
+    private JwtTokenProvider tokenProvider;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("signing-" + codec, Map.of("jwt.codec", codec));
+        tokenProvider = context.getBean(JwtTokenProvider.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken("benchmark.user@example.com", ROLES);
+    }
+
+    @Benchmark
+    public String generateTokenFromUsername() {
+        return tokenProvider.generateTokenFromUsername("benchmark.user@example.com");
+    }
+}
@@ -0,0 +1,80 @@
+package org.auth.benchmarks;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.auth.tokenverifier.TokenVerifier;
+import org.auth.tokenverifier.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// token-verifier against a cached jjwt parser on the same tokens.
+// Run with -prof gc to compare gc.alloc.rate.norm (bytes allocated per verification).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerifierBenchmark {
+
+    private String hmacToken;
+    private String ed25519Token;
+    private TokenVerifier hmacVerifier;
+    private TokenVerifier ed25519Verifier;
+    private JwtParser hmacParser;
+    private JwtParser ed25519Parser;
+
+    @Setup
+    public void setUp() {
+        SecretKey secret = Keys.hmacShaKeyFor(
+                "benchmarkSecretKeyThatIsLongEnoughForHmacSha512Signatures0123456789".getBytes(StandardCharsets.UTF_8));
+        KeyPair ed25519 = Jwks.CRV.Ed25519.keyPair().build();
+        Date expiry = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+
+        hmacToken = Jwts.builder()
+                .subject("benchmark.user@example.com").id("7f6c1a8e-5d2b-4e3f-9a10-2b3c4d5e6f70")
+                .issuedAt(new Date()).expiration(expiry)
+                .claim("roles", List.of("ROLE_USER"))
+                .signWith(secret, Jwts.SIG.HS256)
+                .compact();
+        ed25519Token = Jwts.builder().header().keyId("bench").and()
+                .subject("benchmark.user@example.com").id("7f6c1a8e-5d2b-4e3f-9a10-2b3c4d5e6f70")
+                .issuedAt(new Date()).expiration(expiry)
+                .claim("roles", List.of("ROLE_USER"))
+                .signWith(ed25519.getPrivate(), Jwts.SIG.EdDSA)
+                .compact();
+
+        hmacVerifier = new TokenVerifier((alg, kid) -> secret);
+        ed25519Verifier = new TokenVerifier((alg, kid) -> ed25519.getPublic());
+        hmacParser = Jwts.parser().verifyWith(secret).build();
+        ed25519Parser = Jwts.parser().verifyWith(ed25519.getPublic()).build();
+    }
+
+    @Benchmark
+    public VerifiedToken tokenVerifierHs256() {
+        return hmacVerifier.verify(hmacToken);
+    }
+
+    @Benchmark
+    public Object jjwtHs256() {
+        return hmacParser.parseSignedClaims(hmacToken).getPayload();
+    }
+
+    @Benchmark
+    public VerifiedToken tokenVerifierEd25519() {
+        return ed25519Verifier.verify(ed25519Token);
+    }
+
+    @Benchmark
+    public Object jjwtEd25519() {
+        return ed25519Parser.parseSignedClaims(ed25519Token).getPayload();
+    }
+}
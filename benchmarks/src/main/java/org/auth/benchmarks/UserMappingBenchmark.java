@@ -0,0 +1,41 @@
+package org.auth.benchmarks;
+
+import org.auth.fullauthenticationotp.dto.UserDTO;
+import org.auth.fullauthenticationotp.model.Role;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// User -> UserDTO mapping done for every login and refresh response
+// (AuthService.convertToUserDTO, now UserDTO.from).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(42L)
+                .email("benchmark.user@example.com")
+                .firstName("Bench")
+                .lastName("User")
+                .emailVerified(true)
+                .enabled(true)
+                .roles(Set.of(new Role(1L, RoleType.ROLE_USER), new Role(2L, RoleType.ROLE_ADMIN)))
+                .build();
+    }
+
+    @Benchmark
+    public UserDTO convertToUserDTO() {
+        return UserDTO.from(user);
+    }
+}
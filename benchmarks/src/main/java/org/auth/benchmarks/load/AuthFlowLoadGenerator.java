@@ -0,0 +1,237 @@
+package org.auth.benchmarks.load;
+
+import org.auth.fullauthenticationotp.FullAuthenticationOtpApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// End-to-end load generator: boots the app on a random port with the H2 "test" profile, points
+// its mail sender at an in-process SMTP sink, and drives signup -> OTP -> verify -> login ->
+// refresh -> profile flows from virtual threads. Prints per-endpoint percentiles as JSON.
+//
+//   java -cp benchmarks/target/benchmarks.jar org.auth.benchmarks.load.AuthFlowLoadGenerator \
+//        --users=500 --concurrency=64 --out=load.json
+//
+// Any other --some.property=value argument is passed through to the application.
+public final class AuthFlowLoadGenerator {
+
+    private static final String[] ENDPOINTS = {"signup", "verify-otp", "login", "refresh-token", "profile"};
+    private static final String PASSWORD = "Load#Test1";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final HttpClient client;
+    private final InMemorySmtpServer smtp;
+    private final String baseUrl;
+    private final Pattern otpPattern;
+    private final Duration mailTimeout;
+    private final int refreshes;
+    private final int profiles;
+
+    private AuthFlowLoadGenerator(HttpClient client, InMemorySmtpServer smtp, String baseUrl, int otpLength,
+                                  Duration mailTimeout, int refreshes, int profiles) {
+        this.client = client;
+        this.smtp = smtp;
+        this.baseUrl = baseUrl;
+        this.otpPattern = Pattern.compile("\\b(\\d{" + otpLength + "})\\b");
+        this.mailTimeout = mailTimeout;
+        this.refreshes = refreshes;
+        this.profiles = profiles;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, eq);
+            if (name.contains(".")) {
+                appArgs.add(arg);
+            } else {
+                options.put(name, arg.substring(eq + 1));
+            }
+        }
+        int users = intOption(options, "users", 200);
+        int concurrency = intOption(options, "concurrency", 32);
+        int warmupUsers = intOption(options, "warmup-users", 50);
+        int refreshes = intOption(options, "refreshes", 3);
+        int profiles = intOption(options, "profiles", 5);
+        Duration mailTimeout = Duration.ofMillis(intOption(options, "mail-timeout-ms", 10000));
+
+        try (InMemorySmtpServer smtp = new InMemorySmtpServer();
+             ConfigurableApplicationContext context = startApplication(smtp.port(), appArgs);
+             ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .executor(clientThreads)
+                     .build()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            int otpLength = context.getEnvironment().getProperty("otp.length", Integer.class, 6);
+            AuthFlowLoadGenerator generator = new AuthFlowLoadGenerator(
+                    client, smtp, baseUrl, otpLength, mailTimeout, refreshes, profiles);
+
+            // Warm the JIT, connection pools and caches; these samples are discarded
+            generator.run("warmup", warmupUsers, concurrency, new LatencyRecorder());
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            long start = System.nanoTime();
+            int[] outcome = generator.run("user", users, concurrency, recorder);
+            long elapsed = System.nanoTime() - start;
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("users", users);
+            config.put("concurrency", concurrency);
+            config.put("warmupUsers", warmupUsers);
+            config.put("refreshesPerUser", refreshes);
+            config.put("profilesPerUser", profiles);
+            config.put("applicationArgs", appArgs);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("javaVersion", Runtime.version().toString());
+            report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            report.put("config", config);
+            report.put("elapsedMs", elapsed / 1_000_000);
+            report.put("flowsCompleted", outcome[0]);
+            report.put("flowsFailed", outcome[1]);
+            report.put("endpoints", recorder.summary(ENDPOINTS, elapsed));
+
+            String json = generator.mapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+            System.out.println(json);
+            if (options.containsKey("out")) {
+                Files.writeString(Path.of(options.get("out")), json);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(int smtpPort, List<String> overrides) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.mail.host=localhost",
+                "--spring.mail.port=" + smtpPort,
+                "--spring.mail.properties.mail.smtp.auth=false",
+                "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        // Later arguments win, so callers can override any of the defaults above
+        args.addAll(overrides);
+        return new SpringApplicationBuilder(FullAuthenticationOtpApplication.class)
+                .profiles("test")
+                .run(args.toArray(String[]::new));
+    }
+
+    private int[] run(String prefix, int users, int concurrency, LatencyRecorder recorder)
+            throws InterruptedException {
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        try (ExecutorService flows = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                String email = prefix + i + "@load.test";
+                permits.acquire();
+                flows.submit(() -> {
+                    try {
+                        runFlow(email, recorder);
+                        completed.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return new int[]{completed.get(), failed.get()};
+    }
+
+    private void runFlow(String email, LatencyRecorder recorder) throws IOException, InterruptedException {
+        call(recorder, "signup", 201, post("/api/auth/signup", Map.of(
+                "email", email, "password", PASSWORD, "firstName", "Load", "lastName", "Test")));
+
+        String mail = smtp.awaitMessage(email, mailTimeout);
+        Matcher otp = otpPattern.matcher(mail);
+        if (!otp.find()) {
+            throw new IllegalStateException("No OTP in mail for " + email);
+        }
+
+        call(recorder, "verify-otp", 200, post("/api/auth/verify-otp", Map.of("email", email, "otp", otp.group(1))));
+
+        JsonNode tokens = call(recorder, "login", 200, post("/api/auth/login", Map.of("email", email, "password", PASSWORD)));
+        String accessToken = tokens.path("accessToken").asString();
+        String refreshToken = tokens.path("refreshToken").asString();
+
+        for (int i = 0; i < refreshes; i++) {
+            // Rotation hands out a new refresh token each time; keep following the chain
+            tokens = call(recorder, "refresh-token", 200, post("/api/auth/refresh-token", Map.of("refreshToken", refreshToken)));
+            accessToken = tokens.path("accessToken").asString();
+            refreshToken = tokens.path("refreshToken").asString();
+        }
+
+        for (int i = 0; i < profiles; i++) {
+            call(recorder, "profile", 200, request("/api/user/profile")
+                    .header("Authorization", "Bearer " + accessToken)
+                    .GET()
+                    .build());
+        }
+    }
+
+    private HttpRequest post(String path, Map<String, String> body) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private JsonNode call(LatencyRecorder recorder, String endpoint, int expectedStatus, HttpRequest request)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            throw e;
+        }
+        boolean success = response.statusCode() == expectedStatus;
+        recorder.record(endpoint, System.nanoTime() - start, success);
+        if (!success) {
+            throw new IllegalStateException(endpoint + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return mapper.readTree(response.body());
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
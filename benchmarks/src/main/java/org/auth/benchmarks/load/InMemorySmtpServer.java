@@ -0,0 +1,162 @@
+package org.auth.benchmarks.load;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Minimal SMTP sink on a loopback port. Accepts every message, decodes it with Jakarta Mail
+// and files the text/plain body under each envelope recipient so flows can pick up their OTP.
+final class InMemorySmtpServer implements AutoCloseable {
+
+    private static final Session MAIL_SESSION = Session.getInstance(new Properties());
+
+    private final ServerSocket serverSocket;
+    private final ConcurrentHashMap<String, BlockingQueue<String>> mailboxes = new ConcurrentHashMap<>();
+    private final Thread acceptor;
+
+    InMemorySmtpServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 512, InetAddress.getLoopbackAddress());
+        this.acceptor = Thread.ofVirtual().name("smtp-acceptor").start(this::acceptLoop);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    String awaitMessage(String recipient, Duration timeout) throws InterruptedException {
+        String body = mailbox(recipient).poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (body == null) {
+            throw new IllegalStateException("No mail for " + recipient + " within " + timeout);
+        }
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        acceptor.interrupt();
+    }
+
+    private BlockingQueue<String> mailbox(String recipient) {
+        return mailboxes.computeIfAbsent(recipient.toLowerCase(Locale.ROOT), key -> new LinkedBlockingQueue<>());
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().name("smtp-session").start(() -> serve(socket));
+            } catch (IOException e) {
+                // Closed during shutdown
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 localhost ESMTP load-test sink");
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line;
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-localhost\r\n250 8BITMIME");
+                    case "HELO" -> reply(out, "250 localhost");
+                    case "MAIL", "RSET" -> {
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        recipients.add(address(line));
+                        reply(out, "250 OK");
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        deliver(recipients, readData(in));
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException | MessagingException e) {
+            // A broken session only loses its own message; the waiting flow times out and records an error
+        }
+    }
+
+    private static String readData(BufferedReader in) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            // Undo dot-stuffing (RFC 5321 4.5.2)
+            data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+        }
+        return data.toString();
+    }
+
+    private void deliver(List<String> recipients, String data) throws IOException, MessagingException {
+        MimeMessage message = new MimeMessage(MAIL_SESSION,
+                new ByteArrayInputStream(data.getBytes(StandardCharsets.ISO_8859_1)));
+        String body = text(message);
+        for (String recipient : recipients) {
+            mailbox(recipient).add(body);
+        }
+    }
+
+    // The application sends multipart/alternative (text and HTML); flows match the OTP in the text part
+    private static String text(Part part) throws IOException, MessagingException {
+        if (part.isMimeType("text/plain")) {
+            return String.valueOf(part.getContent());
+        }
+        if (part.getContent() instanceof Multipart multipart) {
+            for (int i = 0; i < multipart.getCount(); i++) {
+                String text = text(multipart.getBodyPart(i));
+                if (text != null) {
+                    return text;
+                }
+            }
+        }
+        return part instanceof MimeMessage ? String.valueOf(part.getContent()) : null;
+    }
+
+    private static String address(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>', start + 1);
+        return start >= 0 && end > start ? line.substring(start + 1, end) : line.substring(line.indexOf(':') + 1).trim();
+    }
+
+    private static void reply(OutputStream out, String response) throws IOException {
+        out.write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
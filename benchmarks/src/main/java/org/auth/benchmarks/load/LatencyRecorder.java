@@ -0,0 +1,77 @@
+package org.auth.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps every latency sample per endpoint; a run is at most a few hundred thousand requests,
+// so exact percentiles are cheaper to reason about than a histogram approximation.
+final class LatencyRecorder {
+
+    private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean success) {
+        endpoints.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, success);
+    }
+
+    Map<String, Object> summary(String[] order, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (String endpoint : order) {
+            Samples samples = endpoints.get(endpoint);
+            if (samples != null) {
+                summary.put(endpoint, samples.summary(seconds));
+            }
+        }
+        return summary;
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void add(long value, boolean success) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = value;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized Map<String, Object> summary(double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", count);
+            summary.put("errors", errors);
+            summary.put("throughputPerSec", round(count / seconds));
+            summary.put("p50Ms", millis(percentile(sorted, 50)));
+            summary.put("p95Ms", millis(percentile(sorted, 95)));
+            summary.put("p99Ms", millis(percentile(sorted, 99)));
+            summary.put("maxMs", millis(count == 0 ? 0 : sorted[count - 1]));
+            return summary;
+        }
+
+        // Nearest-rank percentile
+        private static long percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+
+        private static double millis(long nanos) {
+            return round(nanos / 1e6);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.auth.benchmarks.load;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Startup benchmark: launches the packaged application in a fresh JVM per run and measures, from
+// process start, the time to the first HTTP response and to the first successful login
+// (signup -> OTP mail -> verify -> login). The app runs against in-memory H2 in MySQL mode,
+// initialised from db/schema-mysql.sql, with mail going to an in-process SMTP sink.
+//
+//   mvn -Pfast-startup -pl full-authentication-otp package
+//   java -cp benchmarks/target/benchmarks.jar org.auth.benchmarks.load.StartupTimeProbe \
+//        --runs=5 --jvm-args="-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true"
+//
+// For the baseline, run the same jar without the archive or AOT and with schema validation at boot:
+//   --jvm-args= --profile=default --spring.jpa.hibernate.ddl-auto=update
+// Any other --some.property=value argument is passed through to the application.
+public final class StartupTimeProbe {
+
+    private static final String DEFAULT_DIRECTORY = "full-authentication-otp/target/fast-startup";
+    private static final String DEFAULT_JAR = "full-authentication-otp-0.0.1-SNAPSHOT-exec.jar";
+    private static final String PASSWORD = "Startup#Test1";
+    private static final Pattern OTP_PATTERN = Pattern.compile("\\b(\\d{6})\\b");
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, eq);
+            if (name.contains(".")) {
+                appArgs.add(arg);
+            } else {
+                options.put(name, arg.substring(eq + 1));
+            }
+        }
+        Path directory = Path.of(options.getOrDefault("dir", DEFAULT_DIRECTORY)).toAbsolutePath();
+        String jar = options.getOrDefault("jar", DEFAULT_JAR);
+        List<String> jvmArgs = split(options.getOrDefault("jvm-args",
+                "-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true"));
+        String profile = options.getOrDefault("profile", "fast-startup");
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Duration timeout = Duration.ofMillis(Long.parseLong(options.getOrDefault("timeout-ms", "120000")));
+        if (!Files.isRegularFile(directory.resolve(jar))) {
+            throw new IllegalStateException(directory.resolve(jar) + " not found; build it with mvn -Pfast-startup package");
+        }
+
+        StartupTimeProbe probe = new StartupTimeProbe();
+        List<Map<String, Object>> results = new ArrayList<>();
+        long[] firstResponse = new long[runs];
+        long[] firstLogin = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long[] timings = probe.measure(directory, jar, jvmArgs, profile, appArgs, timeout);
+            firstResponse[run] = timings[0];
+            firstLogin[run] = timings[1];
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("timeToFirstResponseMs", timings[0]);
+            result.put("timeToFirstLoginMs", timings[1]);
+            results.add(result);
+        }
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("directory", directory.toString());
+        config.put("jar", jar);
+        config.put("jvmArgs", jvmArgs);
+        config.put("profile", profile);
+        config.put("runs", runs);
+        config.put("applicationArgs", appArgs);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("config", config);
+        report.put("timeToFirstResponseMs", summary(firstResponse));
+        report.put("timeToFirstLoginMs", summary(firstLogin));
+        report.put("runs", results);
+
+        String json = probe.mapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        System.out.println(json);
+        if (options.containsKey("out")) {
+            Files.writeString(Path.of(options.get("out")), json);
+        }
+    }
+
+    private long[] measure(Path directory, String jar, List<String> jvmArgs, String profile, List<String> overrides,
+                           Duration timeout) throws Exception {
+        try (InMemorySmtpServer smtp = new InMemorySmtpServer()) {
+            int port = freePort();
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmArgs);
+            command.add("-jar");
+            command.add(jar);
+            command.addAll(List.of(
+                    "--spring.profiles.active=" + profile,
+                    "--server.port=" + port,
+                    "--management.server.port=0",
+                    // A fresh database per run; the schema comes from the same script a deployment applies
+                    "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                            + "INIT=RUNSCRIPT FROM 'classpath:db/schema-mysql.sql'",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--jwt.secret=startupProbeSecretThatIsLongEnoughForHmacSha512SignaturesToWork",
+                    "--jwt.refresh-secret=startupProbeRefreshTokenSecret",
+                    "--spring.mail.host=localhost",
+                    "--spring.mail.port=" + smtp.port(),
+                    "--spring.mail.username=probe",
+                    "--spring.mail.password=probe",
+                    "--spring.mail.properties.mail.smtp.auth=false",
+                    "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN"));
+            // Later arguments win, so callers can override any of the defaults above
+            command.addAll(overrides);
+
+            String baseUrl = "http://localhost:" + port;
+            String email = "startup@probe.test";
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .directory(directory.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(directory.resolve("startup-probe.log").toFile())
+                    .start();
+            try {
+                // The first response of any kind marks the server as up. Tomcat accepts requests before
+                // the CommandLineRunners that seed roles have finished, so signup is retried until it succeeds.
+                long deadline = start + timeout.toNanos();
+                HttpRequest signupRequest = post(baseUrl + "/api/auth/signup", Map.of(
+                        "email", email, "password", PASSWORD, "firstName", "Startup", "lastName", "Probe"));
+                HttpResponse<String> signup = awaitFirstResponse(process, signupRequest, deadline);
+                long firstResponse = System.nanoTime() - start;
+                while (signup.statusCode() != 201 && System.nanoTime() < deadline) {
+                    Thread.sleep(5);
+                    signup = client.send(signupRequest, HttpResponse.BodyHandlers.ofString());
+                }
+                expect("signup", 201, signup);
+
+                Matcher otp = OTP_PATTERN.matcher(smtp.awaitMessage(email, timeout));
+                if (!otp.find()) {
+                    throw new IllegalStateException("No OTP in mail for " + email);
+                }
+                expect("verify-otp", 200, client.send(post(baseUrl + "/api/auth/verify-otp",
+                        Map.of("email", email, "otp", otp.group(1))), HttpResponse.BodyHandlers.ofString()));
+                HttpResponse<String> login = client.send(post(baseUrl + "/api/auth/login",
+                        Map.of("email", email, "password", PASSWORD)), HttpResponse.BodyHandlers.ofString());
+                expect("login", 200, login);
+                long firstLogin = System.nanoTime() - start;
+
+                JsonNode tokens = mapper.readTree(login.body());
+                if (tokens.path("accessToken").asString().isEmpty()) {
+                    throw new IllegalStateException("login returned no access token: " + login.body());
+                }
+                return new long[]{firstResponse / 1_000_000, firstLogin / 1_000_000};
+            } finally {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+    }
+
+    private HttpResponse<String> awaitFirstResponse(Process process, HttpRequest request, long deadline)
+            throws IOException, InterruptedException {
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue()
+                        + " before answering; see startup-probe.log");
+            }
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (ConnectException e) {
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("Application did not answer in time; see startup-probe.log");
+    }
+
+    private HttpRequest post(String url, Map<String, String> body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private static void expect(String endpoint, int expectedStatus, HttpResponse<String> response) {
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(endpoint + " returned " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private static Map<String, Object> summary(long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("min", sorted[0]);
+        summary.put("median", sorted[sorted.length / 2]);
+        summary.put("max", sorted[sorted.length - 1]);
+        return summary;
+    }
+
+    private static List<String> split(String value) {
+        return value.isBlank() ? List.of() : List.of(value.trim().split("\\s+"));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -2,8 +2,10 @@ package org.auth.fullauthenticationotp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class FullAuthenticationOtpApplication {
 
     public static void main(String[] args) {
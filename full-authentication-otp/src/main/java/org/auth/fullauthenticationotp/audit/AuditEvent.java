@@ -0,0 +1,18 @@
+package org.auth.fullauthenticationotp.audit;
+
+// One entry of the auth audit trail. The email is canonical and null when the caller could not be
+// identified (a refresh with a forged token); ip and userAgent are null outside a web request.
+public record AuditEvent(long occurredAt, Type type, String email, String ip, String userAgent) {
+
+    public enum Type {
+        LOGIN_SUCCESS,
+        LOGIN_FAILURE,
+        OTP_ISSUED,
+        OTP_VERIFIED,
+        OTP_REJECTED,
+        PASSWORD_RESET_REQUESTED,
+        PASSWORD_RESET,
+        REFRESH,
+        REFRESH_FAILURE
+    }
+}
@@ -0,0 +1,189 @@
+package org.auth.fullauthenticationotp.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.auth.fullauthenticationotp.util.EmailUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Asynchronous, append-only audit trail of the auth flows. record() runs on the request thread and
+// only captures the caller's IP and user agent and puts the event on a lock-free ring buffer; one
+// writer thread drains it in batches of up to audit.batch-size into the configured AuditSink, so the
+// cost of a database insert or fsync is paid once per batch rather than on every request.
+//
+// Backpressure is bounded: with the buffer full, record() waits up to audit.offer-timeout ms for the
+// writer to make room and then drops the event (auth.audit.events{outcome=dropped}) rather than
+// stalling logins behind a slow sink. On shutdown the writer drains what is left before exiting.
+@Slf4j
+@Component
+public class AuditLog implements SmartLifecycle {
+
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AuditSink sink;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.flush-interval:200}")
+    private long flushIntervalMillis;
+
+    @Value("${audit.offer-timeout:10}")
+    private long offerTimeoutMillis;
+
+    @Value("${audit.drain-timeout:10000}")
+    private long drainTimeoutMillis;
+
+    private volatile AuditRingBuffer buffer;
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditLog(AuditSink sink, MeterRegistry registry) {
+        this.sink = sink;
+        this.written = counter(registry, "written");
+        this.dropped = counter(registry, "dropped");
+        this.failed = counter(registry, "failed");
+    }
+
+    public void record(AuditEvent.Type type, String email) {
+        AuditRingBuffer ring = buffer;
+        if (ring == null) {
+            return;
+        }
+        String ip = null;
+        String userAgent = null;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            ip = request.getRemoteAddr();
+            userAgent = truncate(request.getHeader(HttpHeaders.USER_AGENT));
+        }
+        String emailKey = email == null ? null : EmailUtils.canonicalize(email);
+        AuditEvent event = new AuditEvent(System.currentTimeMillis(), type, emailKey, ip, userAgent);
+        if (ring.offer(event)) {
+            return;
+        }
+        // Full: wake the writer and give it up to offer-timeout to make room
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+            if (ring.offer(event)) {
+                return;
+            }
+        } while (System.nanoTime() < deadline);
+        dropped.increment();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        // The writer is assigned before the buffer is published, so producers that see one see both
+        writer = Thread.ofPlatform().name("audit-writer").daemon().unstarted(this::drainLoop);
+        buffer = new AuditRingBuffer(Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1);
+        running = true;
+        writer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(drainTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Audit writer did not drain within {} ms; remaining events are lost", drainTimeoutMillis);
+        }
+        buffer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server has finished its in-flight requests, so their events are drained too
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        AuditRingBuffer ring = buffer;
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (true) {
+            boolean stopping = !running;
+            ring.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                if (stopping) {
+                    break;
+                }
+                // Idle: events accumulate meanwhile and go out as one batch
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+            flush(batch);
+        }
+        try {
+            sink.close();
+        } catch (Exception e) {
+            log.warn("Closing the audit sink failed", e);
+        }
+    }
+
+    private void flush(List<AuditEvent> batch) {
+        try {
+            sink.write(batch);
+            written.increment(batch.size());
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.error("Writing {} audit events failed; they are dropped", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private static String truncate(String userAgent) {
+        return userAgent == null || userAgent.length() <= MAX_USER_AGENT_LENGTH
+                ? userAgent
+                : userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("auth.audit.events")
+                .description("Audit events by what happened to them")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,13 @@
+package org.auth.fullauthenticationotp.audit;
+
+import java.util.List;
+
+// Where AuditLog's writer thread puts each batch. Only that thread calls it, so implementations
+// need no synchronization; a thrown exception drops the batch and is counted as failed.
+public interface AuditSink {
+
+    void write(List<AuditEvent> batch) throws Exception;
+
+    default void close() throws Exception {
+    }
+}
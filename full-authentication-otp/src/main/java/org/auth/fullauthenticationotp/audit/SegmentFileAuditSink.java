@@ -0,0 +1,64 @@
+package org.auth.fullauthenticationotp.audit;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends each batch as NDJSON lines to the current segment file in one write and one fsync, and
+// starts a new segment once the current one reaches segmentSize bytes. Segments are named
+// audit-<epoch millis>-<n>.ndjson so they sort in write order; a closed segment is never touched
+// again and can be shipped or deleted. Each process starts a new segment.
+public class SegmentFileAuditSink implements AuditSink {
+
+    private final Path directory;
+    private final long segmentSize;
+    private final JsonMapper jsonMapper;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+    private FileChannel segment;
+    private int segmentNumber;
+
+    public SegmentFileAuditSink(Path directory, long segmentSize, JsonMapper jsonMapper) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public void write(List<AuditEvent> batch) throws IOException {
+        buffer.reset();
+        for (AuditEvent event : batch) {
+            jsonMapper.writeValue(buffer, event);
+            buffer.write('\n');
+        }
+        if (segment == null || segment.size() >= segmentSize) {
+            roll();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            segment.write(bytes);
+        }
+        segment.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+
+    private void roll() throws IOException {
+        close();
+        Path file = directory.resolve("audit-" + System.currentTimeMillis() + "-" + segmentNumber++ + ".ndjson");
+        segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,36 @@
+package org.auth.fullauthenticationotp.config;
+
+import org.auth.fullauthenticationotp.audit.AuditSink;
+import org.auth.fullauthenticationotp.audit.JdbcAuditSink;
+import org.auth.fullauthenticationotp.audit.SegmentFileAuditSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// The audit sink: the auth_audit_log table (audit.sink=jdbc, the default) or rolling NDJSON
+// segment files under audit.file.directory (audit.sink=file)
+@Configuration
+public class AuditConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "audit.sink", havingValue = "jdbc", matchIfMissing = true)
+    public AuditSink jdbcAuditSink(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        return new JdbcAuditSink(jdbcTemplate, new TransactionTemplate(transactionManager));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "audit.sink", havingValue = "file")
+    public AuditSink segmentFileAuditSink(@Value("${audit.file.directory:audit}") Path directory,
+                                          @Value("${audit.file.segment-size:67108864}") long segmentSize,
+                                          JsonMapper jsonMapper) throws IOException {
+        return new SegmentFileAuditSink(directory, segmentSize, jsonMapper);
+    }
+}
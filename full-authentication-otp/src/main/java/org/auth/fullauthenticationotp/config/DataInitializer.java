@@ -1,27 +1,41 @@
 package org.auth.fullauthenticationotp.config;
 
 import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.datasource.ShardRouter;
 import org.auth.fullauthenticationotp.model.Role;
 import org.auth.fullauthenticationotp.model.RoleType;
 import org.auth.fullauthenticationotp.repository.RoleRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 @Component
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
 
     private final RoleRepository roleRepository;
+    private final ShardRouter shardRouter;
 
+    // Roles are reference data, kept on every shard
     @Override
     public void run(String... args) {
-        // Initialize roles if they don't exist
-        for (RoleType roleType : RoleType.values()) {
-            if (roleRepository.findByName(roleType).isEmpty()) {
-                Role role = new Role();
-                role.setName(roleType);
-                roleRepository.save(role);
-            }
+        shardRouter.forEachShard(shard -> seedRoles());
+    }
+
+    private void seedRoles() {
+        // One query for the roles that exist; on every start after the first nothing is written
+        Set<RoleType> missing = EnumSet.allOf(RoleType.class);
+        missing.removeAll(roleRepository.findAllNames());
+        if (missing.isEmpty()) {
+            return;
         }
+
+        List<Role> roles = missing.stream()
+                .map(roleType -> Role.builder().name(roleType).build())
+                .toList();
+        roleRepository.saveAll(roles);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package org.auth.fullauthenticationotp.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.auth.fullauthenticationotp.datasource.ShardRouter;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Fills users.email_canonical for rows created before the column existed.
+// Runs in id-ordered batches, each in its own transaction, so a large table is
+// never locked as a whole and an interrupted run simply resumes on next start.
+//
+// Two accounts whose emails differ only by case cannot both have a canonical email. Every lookup
+// goes through it, so such an account could neither log in nor reset its password, and saving it
+// would violate the unique index. The backfill therefore migrates every other row and then fails
+// startup with the conflicting ids; an operator merges or renames those accounts and restarts.
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class EmailCanonicalBackfill implements CommandLineRunner {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${migration.email-canonical.batch-size:500}")
+    private int batchSize;
+
+    // The migration queries carry no shard key, so each shard is bound and migrated in turn
+    @Override
+    public void run(String... args) {
+        List<String> conflicts = new ArrayList<>();
+        shardRouter.forEachShard(shard -> backfillShard(shard, conflicts));
+        if (!conflicts.isEmpty()) {
+            throw new IllegalStateException(conflicts.size() + " users have an email that differs only by case"
+                    + " from another account and were not migrated; merge or rename them and restart: "
+                    + String.join(", ", conflicts));
+        }
+    }
+
+    private void backfillShard(int shard, List<String> conflicts) {
+        long afterId = 0;
+        int updated = 0;
+        List<Long> ids;
+        while (!(ids = userRepository.findIdsWithoutEmailCanonical(afterId, PageRequest.of(0, batchSize))).isEmpty()) {
+            updated += backfillBatch(shard, ids, conflicts);
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (updated > 0) {
+            log.info("Backfilled canonical email for {} users on shard {}", updated, shard);
+        }
+    }
+
+    private int backfillBatch(int shard, List<Long> ids, List<String> conflicts) {
+        try {
+            return transactionTemplate.execute(status -> userRepository.backfillEmailCanonical(ids));
+        } catch (DataIntegrityViolationException e) {
+            // Some row in the batch collides with an existing canonical email; retry row by row
+            int updated = 0;
+            for (Long id : ids) {
+                try {
+                    updated += transactionTemplate.execute(status -> userRepository.backfillEmailCanonical(List.of(id)));
+                } catch (DataIntegrityViolationException conflict) {
+                    String owner = userRepository.findCanonicalEmailOwner(id).map(String::valueOf).orElse("unknown");
+                    log.error("User {} on shard {} has an email that differs only by case from user {}", id, shard, owner);
+                    conflicts.add("user " + id + " (shard " + shard + ") conflicts with user " + owner);
+                }
+            }
+            return updated;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package org.auth.fullauthenticationotp.config;
 
 import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.metrics.AuthMetrics;
 import org.auth.fullauthenticationotp.security.JwtAuthenticationEntryPoint;
 import org.auth.fullauthenticationotp.security.JwtAuthenticationFilter;
+import org.auth.fullauthenticationotp.security.TimedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.security.autoconfigure.actuate.web.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,6 +37,10 @@ public class SecurityConfig {
     private final JwtAuthenticationEntryPoint authenticationEntryPoint;
     private final JwtAuthenticationFilter authenticationFilter;
     private final UserDetailsService userDetailsService;
+    private final AuthMetrics authMetrics;
+
+    @Value("${security.bcrypt-strength:10}")
+    private int bcryptStrength;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -47,8 +55,14 @@ public class SecurityConfig {
                                 "/api/auth/resend-otp",
                                 "/api/auth/refresh-token",
                                 "/api/auth/reset-password",
-                                "/api/auth/forgot-password"
+                                "/api/auth/forgot-password",
+                                "/api/auth/introspect",
+                                "/.well-known/jwks.json"
                         ).permitAll()
+                        // Actuator is served only on management.server.port, which is not exposed publicly.
+                        // Probes and the Prometheus scraper call it without a JWT; everything else is admin-only.
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .requestMatchers("/api/vendor/**").hasAnyRole("VENDOR", "ADMIN")
                         .anyRequest().authenticated()
@@ -80,7 +94,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), authMetrics);
     }
 
     @Bean
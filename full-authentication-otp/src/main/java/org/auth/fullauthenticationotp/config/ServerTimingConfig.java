@@ -0,0 +1,20 @@
+package org.auth.fullauthenticationotp.config;
+
+import org.auth.fullauthenticationotp.metrics.ServerTimingSqlListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+    // Registered only when enabled: Hibernate would otherwise create a listener for every session
+    @Bean
+    public HibernatePropertiesCustomizer serverTimingSqlListener() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                ServerTimingSqlListener.class.getName());
+    }
+}
@@ -0,0 +1,49 @@
+package org.auth.fullauthenticationotp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.auth.fullauthenticationotp.datasource.ShardDataSources;
+import org.auth.fullauthenticationotp.datasource.ShardRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Replaces the auto-configured DataSource with one pool per shard behind a ShardRoutingDataSource.
+// The schema (db/schema-mysql.sql) must already be applied to every shard; ddl-auto only reaches shard 0.
+@Configuration
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties properties,
+                                             @Value("${datasource.sharding.urls}") List<String> urls) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(shard).trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shard);
+            pools.add(dataSource);
+        }
+        ShardDataSources shards = new ShardDataSources(pools);
+        shards.reserveIdRanges();
+        return shards;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shardDataSources.shards()));
+    }
+}
@@ -0,0 +1,118 @@
+package org.auth.fullauthenticationotp.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.repository.RefreshTokenRepository;
+import org.auth.fullauthenticationotp.repository.RoleRepository;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.auth.fullauthenticationotp.security.RefreshTokenCodec;
+import org.auth.fullauthenticationotp.security.TokenRevocationService;
+import org.auth.tokenverifier.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Exercises the hot paths against synthetic data before the instance takes traffic: token
+// signing and verification, refresh-token encoding, BCrypt and the read queries behind login,
+// refresh and the JWT filter. Runs as the last CommandLineRunner; Spring Boot only moves the
+// readiness state to ACCEPTING_TRAFFIC once every runner has returned, so /actuator/health/readiness
+// stays DOWN until the warmup completes or its time budget runs out.
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class StartupWarmup implements CommandLineRunner {
+
+    private static final String SYNTHETIC_DOMAIN = "@warmup.invalid";
+
+    private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenCodec refreshTokenCodec;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:2000}")
+    private int iterations;
+
+    @Value("${warmup.password-iterations:20}")
+    private int passwordIterations;
+
+    @Value("${warmup.threads:4}")
+    private int threads;
+
+    @Value("${warmup.time-budget:30000}")
+    private long timeBudget;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + timeBudget;
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        String passwordHash = passwordEncoder.encode("Warmup#Password1");
+
+        // Several threads so more than one pooled connection and compiler thread get exercised
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads))) {
+            for (int t = 0; t < Math.max(1, threads); t++) {
+                executor.execute(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < iterations && System.currentTimeMillis() < deadline) {
+                        iteration(i, passwordHash);
+                        completed.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        if (completed.get() < iterations) {
+            log.warn("Warmup hit its {} ms budget after {} of {} iterations; accepting traffic",
+                    timeBudget, completed.get(), iterations);
+        } else {
+            log.info("Warmup finished {} iterations in {} ms; accepting traffic", completed.get(), elapsed);
+        }
+    }
+
+    private void iteration(int i, String passwordHash) {
+        String email = "user" + i + SYNTHETIC_DOMAIN;
+        try {
+            String token = tokenProvider.generateToken(email, List.of(RoleType.ROLE_USER.name()));
+            VerifiedToken verified = tokenProvider.verify(token);
+            tokenRevocationService.isRevoked(verified);
+
+            long expiresAt = System.currentTimeMillis() / 1000 + 60;
+            refreshTokenCodec.decode(refreshTokenCodec.encode(new RefreshTokenCodec.Claims(-1, -1 - i, 0, expiresAt)));
+
+            // Misses by construction: the synthetic domain can never be registered
+            userRepository.findByEmailCanonical(email);
+            userRepository.existsByEmailCanonical(email);
+            refreshTokenRepository.findWithUserById(-1L - i);
+            roleRepository.findByName(RoleType.ROLE_USER);
+
+            if (i < passwordIterations) {
+                passwordEncoder.matches("Warmup#Password1", passwordHash);
+            }
+        } catch (RuntimeException e) {
+            // Warmup must never keep the instance from starting
+            log.debug("Warmup iteration {} failed", i, e);
+        }
+    }
+}
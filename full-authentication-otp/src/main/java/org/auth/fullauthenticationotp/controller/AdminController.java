@@ -1,22 +1,99 @@
 package org.auth.fullauthenticationotp.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.auth.fullauthenticationotp.dto.ApiResponse;
+import org.auth.fullauthenticationotp.dto.UserImportProgress;
+import org.auth.fullauthenticationotp.metrics.AuthFunnelStats;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.service.UserImportService;
+import org.auth.fullauthenticationotp.service.UserSearchService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import tools.jackson.databind.json.JsonMapper;
 
-import java.util.Map;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/admin")
 @RequiredArgsConstructor
 public class AdminController {
 
+    private final UserImportService userImportService;
+    private final UserSearchService userSearchService;
+    private final AuthFunnelStats funnelStats;
+    private final JsonMapper jsonMapper;
+
+    // Funnel counts for this instance over sliding 1m, 1h and 24h windows, from in-memory counters
     @GetMapping("/dashboard")
     public ResponseEntity<ApiResponse> getDashboard() {
         return ResponseEntity.ok(new ApiResponse(true,
-                "Admin dashboard data", Map.of("role", "ADMIN")));
+                "Admin dashboard data", funnelStats.snapshot()));
+    }
+
+    // Keyset pagination: pass the previous page's nextAfter as after. Filters combine; role may repeat.
+    @GetMapping("/users")
+    public ResponseEntity<ApiResponse> searchUsers(
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Set<RoleType> role,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        UserSearchService.Filter filter = new UserSearchService.Filter(email, name, role);
+        return ResponseEntity.ok(new ApiResponse(true,
+                "Users retrieved", userSearchService.search(filter, after, limit)));
+    }
+
+    // Every matching user as one NDJSON line each, in id order, written as the rows are read
+    @GetMapping("/users/export")
+    public void exportUsers(
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Set<RoleType> role,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        userSearchService.export(new UserSearchService.Filter(email, name, role), user -> {
+            try {
+                out.write(jsonMapper.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // The body is read as it arrives and progress is streamed back as NDJSON, one line per
+    // user-import.progress-interval rows and a final summary:
+    //   curl -N -H 'Content-Type: application/x-ndjson' --data-binary @users.ndjson .../api/admin/users/import
+    @PostMapping(value = "/users/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public void importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body,
+                            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        UserImportProgress result = userImportService.importUsers(body, contentType, progress -> writeLine(out, progress));
+        writeLine(out, result);
+    }
+
+    private void writeLine(OutputStream out, UserImportProgress progress) {
+        try {
+            out.write(jsonMapper.writeValueAsBytes(progress));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            // The client went away; failing here stops the import
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -6,7 +6,10 @@ import org.auth.fullauthenticationotp.dto.*;
 import org.auth.fullauthenticationotp.exception.InvalidOTPException;
 import org.auth.fullauthenticationotp.exception.UserNotFoundException;
 import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.security.JwtAuthenticationFilter;
 import org.auth.fullauthenticationotp.service.AuthService;
+import org.auth.fullauthenticationotp.service.RefreshCoalescer;
+import org.auth.tokenverifier.VerifiedToken;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +24,7 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
+    private final RefreshCoalescer refreshCoalescer;
 
     @PostMapping("/signup")
     public ResponseEntity<ApiResponse> signup(@Valid @RequestBody SignupRequest request) {
@@ -91,8 +95,21 @@ public class AuthController {
         if (token == null || token.isBlank()) {
             throw new org.auth.fullauthenticationotp.exception.InvalidTokenException("Refresh token is required");
         }
-        AuthResponse response = authService.refreshToken(token);
+        AuthResponse response = refreshCoalescer.refresh(token, authService::refreshToken);
         return ResponseEntity.ok(response);
     }
-}
 
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse> logout(
+            @RequestAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE) VerifiedToken accessToken,
+            @RequestBody(required = false) Map<String, String> request) {
+        String refreshToken = request == null ? null : request.get("refreshToken");
+        return ResponseEntity.ok(authService.logout(accessToken, refreshToken));
+    }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<ApiResponse> logoutAll(
+            @RequestAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE) VerifiedToken accessToken) {
+        return ResponseEntity.ok(authService.logoutAll(accessToken));
+    }
+}
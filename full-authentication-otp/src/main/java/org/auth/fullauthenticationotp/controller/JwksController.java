@@ -0,0 +1,41 @@
+package org.auth.fullauthenticationotp.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.security.JwtKeyRing;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    // The JSON is rendered once per key rotation; this only hands out the cached string
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getJwks(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = keyRing.jwksEtag();
+        CacheControl cacheControl = CacheControl.maxAge(keyRing.jwksMaxAge(), TimeUnit.SECONDS)
+                .cachePublic()
+                .mustRevalidate();
+
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .eTag(etag)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .body(keyRing.jwksJson());
+    }
+}
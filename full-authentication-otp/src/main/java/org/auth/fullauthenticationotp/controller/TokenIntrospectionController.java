@@ -0,0 +1,38 @@
+package org.auth.fullauthenticationotp.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.dto.TokenIntrospectionRequest;
+import org.auth.fullauthenticationotp.dto.TokenIntrospectionResponse;
+import org.auth.fullauthenticationotp.exception.InvalidTokenException;
+import org.auth.fullauthenticationotp.service.TokenIntrospectionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+public class TokenIntrospectionController {
+
+    private final TokenIntrospectionService introspectionService;
+
+    // Shared with the gateway; an empty value keeps the endpoint closed
+    @Value("${introspection.client-secret:}")
+    private String clientSecret;
+
+    @PostMapping("/introspect")
+    public ResponseEntity<TokenIntrospectionResponse> introspect(
+            @RequestHeader(value = "X-Introspection-Secret", required = false) String secret,
+            @Valid @RequestBody TokenIntrospectionRequest request) {
+        if (clientSecret.isEmpty() || secret == null || !MessageDigest.isEqual(
+                clientSecret.getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8))) {
+            throw new InvalidTokenException("Invalid introspection client credentials");
+        }
+        return ResponseEntity.ok(new TokenIntrospectionResponse(
+                introspectionService.introspect(request.getTokens())));
+    }
+}
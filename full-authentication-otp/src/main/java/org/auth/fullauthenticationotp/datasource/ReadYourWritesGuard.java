@@ -0,0 +1,56 @@
+package org.auth.fullauthenticationotp.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Keeps a user's reads on the primary for a short window after this instance wrote their data, so
+// verify-then-login or signup-then-resend never sees a lagging replica. Keys are canonical emails.
+// Only covers writes made by this instance; size the window above the replica's worst lag.
+@Component
+public class ReadYourWritesGuard {
+
+    @Value("${datasource.replica.enabled:false}")
+    private boolean enabled;
+
+    @Value("${datasource.replica.read-your-writes-window:5000}")
+    private long window;
+
+    private final ConcurrentHashMap<String, Long> recentWrites = new ConcurrentHashMap<>();
+
+    // Call inside the writing transaction; the window starts when it commits
+    public void recordWrite(String key) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWrites.put(key, System.currentTimeMillis() + window);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWrites.put(key, System.currentTimeMillis() + window);
+            }
+        });
+    }
+
+    public <T> T read(String key, Supplier<T> read) {
+        Long until = enabled ? recentWrites.get(key) : null;
+        if (until == null || until < System.currentTimeMillis()) {
+            return read.get();
+        }
+        return ReadWriteRoutingDataSource.onPrimary(read);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.read-your-writes-purge-interval:60000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        recentWrites.values().removeIf(until -> until < now);
+    }
+}
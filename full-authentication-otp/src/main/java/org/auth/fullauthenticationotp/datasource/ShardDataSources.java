@@ -0,0 +1,51 @@
+package org.auth.fullauthenticationotp.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+// The connection pools behind ShardRoutingDataSource, one per shard, in shard order
+public class ShardDataSources implements AutoCloseable {
+
+    private static final List<String> SHARDED_TABLES = List.of("users", "otps", "refresh_sessions");
+
+    private final List<HikariDataSource> shards;
+
+    public ShardDataSources(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    public List<HikariDataSource> shards() {
+        return shards;
+    }
+
+    // Points the auto-increment counters of a shard that has no users yet at the start of its id range,
+    // and refuses to start if a populated shard holds ids outside its range. The schema must exist.
+    public void reserveIdRanges() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            JdbcTemplate jdbc = new JdbcTemplate(shards.get(shard));
+            long first = ShardRouter.firstId(shard);
+            boolean fresh = maxId(jdbc, "users") == 0;
+            for (String table : SHARDED_TABLES) {
+                long max = maxId(jdbc, table);
+                if (fresh && max == 0 && shard > 0) {
+                    jdbc.execute("alter table " + table + " auto_increment = " + first);
+                } else if (max != 0 && max >>> ShardRouter.LOCAL_ID_BITS != shard) {
+                    throw new IllegalStateException("Shard " + shard + " has " + table
+                            + " ids outside its range; was a shard added or reordered?");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+
+    private static long maxId(JdbcTemplate jdbc, String table) {
+        Long max = jdbc.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+}
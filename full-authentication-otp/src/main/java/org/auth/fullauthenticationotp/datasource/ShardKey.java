@@ -0,0 +1,13 @@
+package org.auth.fullauthenticationotp.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks the repository method parameter that picks the shard: an email, a row id, a collection of
+// row ids from one shard, or a User, OTP or RefreshToken entity. See ShardRoutingAspect.
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
@@ -0,0 +1,79 @@
+package org.auth.fullauthenticationotp.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+// Maps users to shards. A user lives on the shard picked by a hash of their canonical email, and
+// every row id is allocated from its shard's own range, so an id alone (a user id, or the session
+// id inside a refresh token) names its shard. With sharding disabled there is a single shard, 0.
+@Component
+public class ShardRouter {
+
+    // Shard n allocates ids from [n * 2^40, (n + 1) * 2^40); ids stay below 2^53 for up to 8192 shards
+    public static final int LOCAL_ID_BITS = 40;
+
+    private final int shardCount;
+
+    public ShardRouter(@Value("${datasource.sharding.enabled:false}") boolean enabled,
+                       @Value("${datasource.sharding.urls:}") List<String> urls) {
+        this.shardCount = enabled ? urls.size() : 1;
+        if (shardCount < 1 || shardCount > 1 << (53 - LOCAL_ID_BITS)) {
+            throw new IllegalStateException("datasource.sharding.urls must list 1 to 8192 databases");
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardForEmail(String canonicalEmail) {
+        CRC32C crc = new CRC32C();
+        crc.update(canonicalEmail.getBytes(StandardCharsets.UTF_8));
+        return jumpHash(crc.getValue(), shardCount);
+    }
+
+    // An id outside every configured range cannot exist anywhere; it goes to shard 0, which answers
+    // "no such row" as well as any other shard would
+    public int shardForId(long id) {
+        long shard = id >>> LOCAL_ID_BITS;
+        return id > 0 && shard < shardCount ? (int) shard : 0;
+    }
+
+    public static long firstId(int shard) {
+        return ((long) shard << LOCAL_ID_BITS) + 1;
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        return ShardRoutingDataSource.bind(shard, action);
+    }
+
+    // For work that is not about one user: seeding reference data, migrations
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            onShard(shard, () -> {
+                action.accept(current);
+                return null;
+            });
+        }
+    }
+
+    // Jump consistent hash (Lamping and Veach): growing from n to n + 1 shards moves only 1/(n + 1)
+    // of the users, all of them onto the new shard
+    static int jumpHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
@@ -0,0 +1,94 @@
+package org.auth.fullauthenticationotp.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.auth.fullauthenticationotp.model.OTP;
+import org.auth.fullauthenticationotp.model.RefreshToken;
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.util.EmailUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+// Binds each call on a user-data repository to its shard, taken from the @ShardKey parameter or, for
+// inherited CRUD methods (save, findById, delete, ...), from the entity or id passed first. Calls
+// without a key (migrations) run on whatever shard the caller bound with ShardRouter.
+@Aspect
+@Component
+@ConditionalOnProperty(name = "datasource.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private final ShardRouter shardRouter;
+
+    @Around("target(org.auth.fullauthenticationotp.repository.UserRepository)"
+            + " || target(org.auth.fullauthenticationotp.repository.OTPRepository)"
+            + " || target(org.auth.fullauthenticationotp.repository.RefreshTokenRepository)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Integer shard = shardOf(((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getArgs());
+        if (shard == null) {
+            return joinPoint.proceed();
+        }
+        try {
+            return shardRouter.onShard(shard, () -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            });
+        } catch (UndeclaredThrowableException e) {
+            throw e.getUndeclaredThrowable();
+        }
+    }
+
+    private Integer shardOf(Method method, Object[] args) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return shardOfKey(args[i]);
+                }
+            }
+        }
+        if (args.length > 0 && method.getDeclaringClass().getName().startsWith("org.springframework.data.")) {
+            return shardOfKey(args[0]);
+        }
+        return null;
+    }
+
+    private Integer shardOfKey(Object key) {
+        return switch (key) {
+            case String email -> shardRouter.shardForEmail(EmailUtils.canonicalize(email));
+            case Long id -> shardRouter.shardForId(id);
+            case User user -> user.getId() != null
+                    ? shardRouter.shardForId(user.getId())
+                    : shardRouter.shardForEmail(EmailUtils.canonicalize(user.getEmail()));
+            case RefreshToken refreshToken -> shardOfKey(refreshToken.getUser());
+            case OTP otp -> shardOfKey(otp.getEmail());
+            case Iterable<?> keys -> shardOfAll(keys);
+            case null, default -> null;
+        };
+    }
+
+    private Integer shardOfAll(Iterable<?> keys) {
+        Integer shard = null;
+        for (Object key : keys) {
+            Integer next = shardOfKey(key);
+            if (shard != null && next != null && !shard.equals(next)) {
+                throw new IllegalArgumentException("Keys span shards " + shard + " and " + next
+                        + "; group them by ShardRouter.shardForId first");
+            }
+            shard = shard == null ? next : shard;
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,78 @@
+package org.auth.fullauthenticationotp.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Routes to the shard bound to the current thread, or shard 0 when none is bound (Hibernate boot,
+// reference data). Like ReadWriteRoutingDataSource it sits behind a LazyConnectionDataSourceProxy,
+// so a transaction lands on the shard bound when its first statement runs, and stays there:
+// binding another shard inside that transaction fails instead of silently using the wrong database.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+    private static final Object TRANSACTION_SHARD = new Object();
+
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        afterPropertiesSet();
+    }
+
+    static <T> T bind(int shard, Supplier<T> action) {
+        Integer transactionShard = (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_SHARD);
+        if (transactionShard != null && transactionShard != shard) {
+            throw new IllegalStateException("Transaction is on shard " + transactionShard
+                    + " and cannot use shard " + shard);
+        }
+        Integer previous = CURRENT_SHARD.get();
+        if (previous != null && previous != shard) {
+            throw new IllegalStateException("Shard " + previous + " is bound; cannot switch to shard " + shard);
+        }
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = CURRENT_SHARD.get();
+        int resolved = shard == null ? 0 : shard;
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.getResource(TRANSACTION_SHARD) == null) {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, resolved);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, resolved);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+                }
+            });
+        }
+        return resolved;
+    }
+}
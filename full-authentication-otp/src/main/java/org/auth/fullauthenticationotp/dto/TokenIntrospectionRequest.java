@@ -0,0 +1,17 @@
+package org.auth.fullauthenticationotp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenIntrospectionRequest {
+    // Access tokens (JWTs) and refresh tokens may be mixed; results keep the request order
+    @NotEmpty(message = "At least one token is required")
+    @Size(max = 1000, message = "At most 1000 tokens per request")
+    private List<String> tokens;
+}
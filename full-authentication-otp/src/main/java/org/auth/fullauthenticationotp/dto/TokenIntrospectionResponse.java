@@ -0,0 +1,12 @@
+package org.auth.fullauthenticationotp.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenIntrospectionResponse {
+    private List<TokenIntrospectionResult> results;
+}
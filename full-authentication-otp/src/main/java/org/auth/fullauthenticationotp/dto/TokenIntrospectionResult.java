@@ -0,0 +1,24 @@
+package org.auth.fullauthenticationotp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionResult {
+    private boolean active;
+    private String tokenType;
+    private String subject;
+    private List<String> roles;
+    // Epoch seconds
+    private Long expiresAt;
+
+    public static TokenIntrospectionResult inactive() {
+        return TokenIntrospectionResult.builder().active(false).build();
+    }
+}
@@ -1,8 +1,10 @@
 package org.auth.fullauthenticationotp.dto;
 
 import lombok.*;
+import org.auth.fullauthenticationotp.model.User;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Data
 @Builder
@@ -15,4 +17,17 @@ public class UserDTO {
     private String lastName;
     private boolean emailVerified;
     private Set<String> roles;
-}
\ No newline at end of file
+
+    public static UserDTO from(User user) {
+        return UserDTO.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .emailVerified(user.isEmailVerified())
+                .roles(user.getRoles().stream()
+                        .map(role -> role.getName().name())
+                        .collect(Collectors.toSet()))
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package org.auth.fullauthenticationotp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportProgress {
+    private long processed;
+    private long imported;
+    private long skipped;
+    private long failed;
+    private long elapsedMs;
+    private long rowsPerSecond;
+    private boolean done;
+    // Set on the final report only: the first rejected rows, and why the import stopped early if it did
+    private List<String> errors;
+    private String aborted;
+}
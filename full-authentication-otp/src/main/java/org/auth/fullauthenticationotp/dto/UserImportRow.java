@@ -0,0 +1,43 @@
+package org.auth.fullauthenticationotp.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+
+// One account from a legacy export. Exactly one of password (plain text, hashed on import) and
+// passwordHash (an existing BCrypt hash, stored as is) must be set.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportRow {
+    @NotBlank(message = "Email is required")
+    @Email(message = "Invalid email format")
+    @Size(max = 255)
+    private String email;
+
+    // Same rules as SignupRequest; null when passwordHash is given instead
+    @Size(min = 8, message = "Password must be at least 8 characters")
+    @Pattern(regexp = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=]).*$", message = "Password must contain uppercase, lowercase, digit and special character")
+    private String password;
+
+    @Pattern(regexp = "^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$", message = "Password hash must be BCrypt")
+    private String passwordHash;
+
+    @NotBlank(message = "First name is required")
+    @Size(max = 255)
+    private String firstName;
+
+    @NotBlank(message = "Last name is required")
+    @Size(max = 255)
+    private String lastName;
+
+    // Verified accounts can log in straight away; the others go through the usual OTP verification
+    private Boolean emailVerified;
+
+    // BCrypt only reads the first 72 bytes and the encoder rejects anything longer
+    @AssertTrue(message = "Password must be at most 72 bytes")
+    public boolean isPasswordWithinBcryptLimit() {
+        return password == null || password.getBytes(StandardCharsets.UTF_8).length <= 72;
+    }
+}
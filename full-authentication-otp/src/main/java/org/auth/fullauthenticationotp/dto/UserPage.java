@@ -0,0 +1,14 @@
+package org.auth.fullauthenticationotp.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPage {
+    private List<UserDTO> users;
+    // Pass as "after" to get the next page; null on the last page
+    private Long nextAfter;
+}
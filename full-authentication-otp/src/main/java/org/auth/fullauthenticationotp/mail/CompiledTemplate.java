@@ -0,0 +1,90 @@
+package org.auth.fullauthenticationotp.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A template parsed once into alternating literal text and parameter slots:
+// literals[0] value[slots[0]] literals[1] value[slots[1]] ... literals[n]. Placeholders are {{name}}
+// and must name one of the template's declared parameters, so a typo fails at startup rather than
+// in a sent email. Rendering is appends only; values are HTML-escaped in HTML templates.
+final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String[] literals;
+    private final int[] slots;
+    private final boolean html;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, int[] slots, boolean html) {
+        this.literals = literals;
+        this.slots = slots;
+        this.html = html;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    static CompiledTemplate compile(String source, List<String> parameters, boolean html, String name) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed " + OPEN + " in mail template " + name);
+            }
+            String parameter = source.substring(open + OPEN.length(), close).trim();
+            int slot = parameters.indexOf(parameter);
+            if (slot < 0) {
+                throw new IllegalStateException("Mail template " + name + " uses unknown parameter '"
+                        + parameter + "'; declared: " + parameters);
+            }
+            literals.add(source.substring(position, open));
+            slots.add(slot);
+            position = close + CLOSE.length();
+        }
+        return new CompiledTemplate(literals.toArray(String[]::new),
+                slots.stream().mapToInt(Integer::intValue).toArray(), html);
+    }
+
+    // Lower bound of the rendered length, for sizing the buffer
+    int literalLength() {
+        return literalLength;
+    }
+
+    void renderTo(StringBuilder out, String[] values) {
+        out.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            String value = values[slots[i]];
+            if (html) {
+                appendEscaped(out, value);
+            } else {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
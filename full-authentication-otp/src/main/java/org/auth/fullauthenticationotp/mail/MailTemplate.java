@@ -0,0 +1,27 @@
+package org.auth.fullauthenticationotp.mail;
+
+import java.util.List;
+
+// The emails the service sends, with the parameters each template may use. Sources are read from
+// classpath:mail/<name>[_<locale>].subject, .txt and, optionally, .html.
+public enum MailTemplate {
+
+    OTP_VERIFICATION("otp-verification", "code", "minutes"),
+    PASSWORD_RESET("password-reset", "code", "minutes");
+
+    private final String fileName;
+    private final List<String> parameters;
+
+    MailTemplate(String fileName, String... parameters) {
+        this.fileName = fileName;
+        this.parameters = List.of(parameters);
+    }
+
+    String fileName() {
+        return fileName;
+    }
+
+    List<String> parameters() {
+        return parameters;
+    }
+}
@@ -0,0 +1,118 @@
+package org.auth.fullauthenticationotp.mail;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Every mail template, parsed once at startup. A variant is picked by locale, falling back from
+// language_COUNTRY to language to the default (the file without a locale suffix), which must exist.
+// Rendering appends the compiled segments into a per-thread buffer that keeps its capacity, so a
+// message costs the appends plus the final strings, never a parse.
+@Component
+public class MailTemplates {
+
+    private static final String LOCATION = "classpath*:mail/";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    private record Variant(CompiledTemplate subject, CompiledTemplate text, CompiledTemplate html) {
+    }
+
+    private final Map<MailTemplate, Map<Locale, Variant>> variants = new EnumMap<>(MailTemplate.class);
+
+    public MailTemplates() {
+        ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(MailTemplates.class.getClassLoader());
+        try {
+            for (MailTemplate template : MailTemplate.values()) {
+                Map<Locale, Variant> byLocale = new HashMap<>();
+                for (Resource subject : resolver.getResources(LOCATION + template.fileName() + "*.subject")) {
+                    String baseName = subject.getFilename().substring(0, subject.getFilename().length() - ".subject".length());
+                    Locale locale = locale(template, baseName);
+                    if (locale != null) {
+                        byLocale.put(locale, load(template, baseName, subject));
+                    }
+                }
+                if (!byLocale.containsKey(Locale.ROOT)) {
+                    throw new IllegalStateException("No default mail template mail/" + template.fileName() + ".subject");
+                }
+                variants.put(template, Map.copyOf(byLocale));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load mail templates", e);
+        }
+    }
+
+    public RenderedMail render(MailTemplate template, Locale locale, String... values) {
+        if (values.length != template.parameters().size()) {
+            throw new IllegalArgumentException(template + " takes " + template.parameters() + ", got "
+                    + values.length + " values");
+        }
+        Variant variant = variant(template, locale);
+        StringBuilder buffer = BUFFER.get();
+        try {
+            return new RenderedMail(
+                    render(buffer, variant.subject(), values),
+                    render(buffer, variant.text(), values),
+                    variant.html() == null ? null : render(buffer, variant.html(), values));
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    private Variant variant(MailTemplate template, Locale locale) {
+        Map<Locale, Variant> byLocale = variants.get(template);
+        Variant variant = locale == null ? null : byLocale.get(locale);
+        if (variant == null && locale != null && !locale.getCountry().isEmpty()) {
+            variant = byLocale.get(Locale.of(locale.getLanguage()));
+        }
+        return variant != null ? variant : byLocale.get(Locale.ROOT);
+    }
+
+    private static String render(StringBuilder buffer, CompiledTemplate template, String[] values) {
+        buffer.setLength(0);
+        buffer.ensureCapacity(template.literalLength() + 64);
+        template.renderTo(buffer, values);
+        return buffer.toString();
+    }
+
+    // otp-verification -> ROOT, otp-verification_fr -> fr, otp-verification_pt_BR -> pt_BR; a file of
+    // another template that shares the prefix (otp-verification-reminder) -> null
+    private static Locale locale(MailTemplate template, String baseName) {
+        if (baseName.equals(template.fileName())) {
+            return Locale.ROOT;
+        }
+        if (!baseName.startsWith(template.fileName() + "_")) {
+            return null;
+        }
+        String[] parts = baseName.substring(template.fileName().length() + 1).split("_", 2);
+        return parts.length == 1 ? Locale.of(parts[0]) : Locale.of(parts[0], parts[1]);
+    }
+
+    private static Variant load(MailTemplate template, String baseName,
+                                Resource subject) throws IOException {
+        Resource text = subject.createRelative(baseName + ".txt");
+        Resource html = subject.createRelative(baseName + ".html");
+        if (!text.exists()) {
+            throw new IllegalStateException("Mail template mail/" + baseName + ".subject has no .txt body");
+        }
+        return new Variant(
+                CompiledTemplate.compile(read(subject).strip(), template.parameters(), false, baseName + ".subject"),
+                CompiledTemplate.compile(read(text), template.parameters(), false, baseName + ".txt"),
+                html.exists() ? CompiledTemplate.compile(read(html), template.parameters(), true, baseName + ".html") : null);
+    }
+
+    private static String read(Resource resource) throws IOException {
+        return resource.getContentAsString(StandardCharsets.UTF_8);
+    }
+}
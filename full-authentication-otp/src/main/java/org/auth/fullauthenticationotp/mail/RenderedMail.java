@@ -0,0 +1,5 @@
+package org.auth.fullauthenticationotp.mail;
+
+// html is null when the template has no HTML variant; the message is then plain text only
+public record RenderedMail(String subject, String text, String html) {
+}
@@ -0,0 +1,74 @@
+package org.auth.fullauthenticationotp.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Live counts of the auth funnel over the last minute, hour and day, for the admin dashboard.
+// Recorded in memory on the request path, so reading them costs no queries; they cover this
+// instance since it started. Prometheus has the same events as auth.* meters for fleet-wide views.
+@Component
+public class AuthFunnelStats {
+
+    public enum Event {
+        SIGNUP("signups"),
+        OTP_ISSUED("otpsIssued"),
+        VERIFICATION("verifications"),
+        LOGIN("logins"),
+        LOGIN_FAILURE("loginFailures"),
+        OTP_FAILURE("otpFailures"),
+        REFRESH("refreshes"),
+        REFRESH_FAILURE("refreshFailures");
+
+        private final String key;
+
+        Event(String key) {
+            this.key = key;
+        }
+    }
+
+    private record Window(String name, Duration length) {
+    }
+
+    // 60 buckets each: one second, one minute and 24 minutes wide
+    private static final List<Window> WINDOWS = List.of(
+            new Window("1m", Duration.ofMinutes(1)),
+            new Window("1h", Duration.ofHours(1)),
+            new Window("24h", Duration.ofDays(1)));
+    private static final int BUCKETS = 60;
+
+    // [event ordinal][window]
+    private final SlidingWindowCounter[][] counters = new SlidingWindowCounter[Event.values().length][WINDOWS.size()];
+
+    public AuthFunnelStats() {
+        for (SlidingWindowCounter[] eventCounters : counters) {
+            for (int window = 0; window < WINDOWS.size(); window++) {
+                eventCounters[window] = new SlidingWindowCounter(WINDOWS.get(window).length(), BUCKETS,
+                        System::currentTimeMillis);
+            }
+        }
+    }
+
+    public void record(Event event) {
+        long now = System.currentTimeMillis();
+        for (SlidingWindowCounter counter : counters[event.ordinal()]) {
+            counter.increment(now);
+        }
+    }
+
+    // {"1m": {"signups": 3, ...}, "1h": {...}, "24h": {...}}
+    public Map<String, Map<String, Long>> snapshot() {
+        Map<String, Map<String, Long>> snapshot = new LinkedHashMap<>();
+        for (int window = 0; window < WINDOWS.size(); window++) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Event event : Event.values()) {
+                counts.put(event.key, counters[event.ordinal()][window].sum());
+            }
+            snapshot.put(WINDOWS.get(window).name(), counts);
+        }
+        return snapshot;
+    }
+}
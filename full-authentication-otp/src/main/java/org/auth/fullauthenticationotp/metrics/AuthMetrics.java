@@ -0,0 +1,101 @@
+package org.auth.fullauthenticationotp.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Meters for the individual stages of the auth flows. Everything is registered up front so the
+// hot paths only touch a field; SLO buckets come from management.metrics.distribution.slo.auth.
+// AuthService methods are timed separately through @Timed as auth.service.
+@Component
+public class AuthMetrics {
+
+    public static final String TYPE_OTP = "otp";
+    public static final String TYPE_PASSWORD_RESET = "password-reset";
+
+    private final Timer jwtValid;
+    private final Timer jwtRevoked;
+    private final Timer jwtInvalid;
+    private final Timer passwordMatch;
+    private final Timer passwordMismatch;
+    private final Timer passwordEncode;
+    private final Timer otpEmailSent;
+    private final Timer otpEmailFailed;
+    private final Timer resetEmailSent;
+    private final Timer resetEmailFailed;
+    private final Counter otpIssued;
+    private final Counter otpVerified;
+    private final Counter otpExpired;
+    private final Counter otpInvalid;
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.jwtValid = timer(registry, "auth.jwt.verification", "JWT verification in the authentication filter", "outcome", "valid");
+        this.jwtRevoked = timer(registry, "auth.jwt.verification", "JWT verification in the authentication filter", "outcome", "revoked");
+        this.jwtInvalid = timer(registry, "auth.jwt.verification", "JWT verification in the authentication filter", "outcome", "invalid");
+        this.passwordMatch = timer(registry, "auth.password.check", "BCrypt password checks", "outcome", "match");
+        this.passwordMismatch = timer(registry, "auth.password.check", "BCrypt password checks", "outcome", "mismatch");
+        this.passwordEncode = Timer.builder("auth.password.encode")
+                .description("BCrypt password hashing")
+                .register(registry);
+        this.otpEmailSent = timer(registry, "auth.email.send", "Outgoing mail", "type", TYPE_OTP, "outcome", "sent");
+        this.otpEmailFailed = timer(registry, "auth.email.send", "Outgoing mail", "type", TYPE_OTP, "outcome", "failed");
+        this.resetEmailSent = timer(registry, "auth.email.send", "Outgoing mail", "type", TYPE_PASSWORD_RESET, "outcome", "sent");
+        this.resetEmailFailed = timer(registry, "auth.email.send", "Outgoing mail", "type", TYPE_PASSWORD_RESET, "outcome", "failed");
+        this.otpIssued = otpCounter(registry, "issued");
+        this.otpVerified = otpCounter(registry, "verified");
+        this.otpExpired = otpCounter(registry, "expired");
+        this.otpInvalid = otpCounter(registry, "invalid");
+    }
+
+    public void recordJwtVerification(long nanos, boolean valid, boolean revoked) {
+        (valid ? (revoked ? jwtRevoked : jwtValid) : jwtInvalid).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPasswordCheck(long nanos, boolean matched) {
+        (matched ? passwordMatch : passwordMismatch).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPasswordEncode(long nanos) {
+        passwordEncode.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordEmailSend(String type, long nanos, boolean sent) {
+        Timer timer = TYPE_PASSWORD_RESET.equals(type)
+                ? (sent ? resetEmailSent : resetEmailFailed)
+                : (sent ? otpEmailSent : otpEmailFailed);
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void otpIssued() {
+        otpIssued.increment();
+    }
+
+    public void otpVerified() {
+        otpVerified.increment();
+    }
+
+    public void otpExpired() {
+        otpExpired.increment();
+    }
+
+    public void otpInvalid() {
+        otpInvalid.increment();
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static Counter otpCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("auth.otp")
+                .description("OTP outcomes")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
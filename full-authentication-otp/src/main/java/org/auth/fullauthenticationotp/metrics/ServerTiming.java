@@ -0,0 +1,100 @@
+package org.auth.fullauthenticationotp.metrics;
+
+// Per-request time attribution for the Server-Timing header. ServerTimingFilter binds one to the
+// request thread when server-timing.enabled is set; otherwise record() is a thread-local read
+// that finds nothing, so instrumented code pays no allocation when the feature is off.
+public final class ServerTiming {
+
+    public enum Stage {
+        JWT("jwt", "JWT parse and revocation check"),
+        USER("user", "User load"),
+        PASSWORD("pwd", "Password hash/check"),
+        DB("db", "SQL statements"),
+        SIGN("sign", "Token signing"),
+        MAIL("mail", "Email dispatch");
+
+        private final String metricName;
+        private final String description;
+
+        Stage(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[STAGES.length];
+    private final int[] counts = new int[STAGES.length];
+
+    public static void record(Stage stage, long elapsedNanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.nanos[stage.ordinal()] += elapsedNanos;
+            timing.counts[stage.ordinal()]++;
+        }
+    }
+
+    static ServerTiming begin() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    // e.g. jwt;dur=0.41;desc="JWT parse and revocation check", db;dur=3.20;desc="SQL statements (4)", total;dur=95.12
+    String headerValue(long totalNanos) {
+        StringBuilder header = new StringBuilder(160);
+        for (Stage stage : STAGES) {
+            int count = counts[stage.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            header.append(stage.metricName).append(";dur=");
+            appendMillis(header, nanos[stage.ordinal()]);
+            header.append(";desc=\"").append(stage.description);
+            if (count > 1) {
+                header.append(" (").append(count).append(')');
+            }
+            header.append("\", ");
+        }
+        header.append("total;dur=");
+        appendMillis(header, totalNanos);
+        return header.toString();
+    }
+
+    // logfmt: stage durations in ms plus the number of times each stage ran
+    String logFields(long totalNanos) {
+        StringBuilder fields = new StringBuilder(160);
+        fields.append("total_ms=");
+        appendMillis(fields, totalNanos);
+        for (Stage stage : STAGES) {
+            int count = counts[stage.ordinal()];
+            if (count > 0) {
+                fields.append(' ').append(stage.metricName).append("_ms=");
+                appendMillis(fields, nanos[stage.ordinal()]);
+                fields.append(' ').append(stage.metricName).append("_count=").append(count);
+            }
+        }
+        return fields.toString();
+    }
+
+    private static void appendMillis(StringBuilder target, long nanos) {
+        long hundredths = Math.round(nanos / 10_000.0);
+        target.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            target.append('0');
+        }
+        target.append(fraction);
+    }
+}
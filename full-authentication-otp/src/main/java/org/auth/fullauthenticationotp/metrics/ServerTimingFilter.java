@@ -0,0 +1,66 @@
+package org.auth.fullauthenticationotp.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Opt-in (server-timing.enabled) breakdown of where a request spent its time; not registered at
+// all when disabled. Runs ahead of the security chain so JWT parsing is included. The body is
+// buffered so the header can still be set after the controller has written it. A sample of
+// requests, and every request slower than the threshold, is also logged as one logfmt line on
+// the "server-timing" logger.
+@Slf4j(topic = "server-timing")
+@Component
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    // Streamed bodies of any size; buffering them would hold the whole import or export in memory
+    private static final Set<String> STREAMING_PATHS = Set.of("/api/admin/users/import", "/api/admin/users/export");
+
+    @Value("${server-timing.log-sample-rate:0.01}")
+    private double logSampleRate;
+
+    @Value("${server-timing.slow-threshold-ms:1000}")
+    private long slowThresholdMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return STREAMING_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        ServerTiming timing = ServerTiming.begin();
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            ServerTiming.end();
+            long total = timing.elapsedNanos();
+            wrapper.setHeader("Server-Timing", timing.headerValue(total));
+            wrapper.copyBodyToResponse();
+            if (total >= slowThresholdMs * 1_000_000 || ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+                log.info("method={} path={} status={} {}", request.getMethod(), request.getRequestURI(),
+                        wrapper.getStatus(), timing.logFields(total));
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.auth.fullauthenticationotp.metrics;
+
+import org.hibernate.SessionEventListener;
+
+// Attributes JDBC statement and batch execution time to the current request. Hibernate creates
+// one per session, and only when server-timing is enabled (see ServerTimingConfig).
+public class ServerTimingSqlListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        ServerTiming.record(ServerTiming.Stage.DB, System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        ServerTiming.record(ServerTiming.Stage.DB, System.nanoTime() - batchStart);
+    }
+}
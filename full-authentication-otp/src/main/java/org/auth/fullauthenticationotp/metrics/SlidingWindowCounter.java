@@ -0,0 +1,62 @@
+package org.auth.fullauthenticationotp.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Event count over a sliding time window, kept as a ring of time buckets. Each bucket is a LongAdder,
+// so concurrent increments land on separate cells instead of contending on one value; an increment
+// allocates nothing except when it is the first in a new bucket. The count covers the current bucket
+// plus the ones before it up to the window length, so it is exact to within one bucket width.
+public class SlidingWindowCounter {
+
+    private record Bucket(long number, LongAdder count) {
+    }
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    public SlidingWindowCounter(Duration window, int buckets, LongSupplier clock) {
+        this.bucketMillis = window.toMillis() / buckets;
+        this.buckets = buckets;
+        this.clock = clock;
+        this.ring = new AtomicReferenceArray<>(buckets);
+        if (bucketMillis < 1) {
+            throw new IllegalArgumentException("window must be at least one millisecond per bucket");
+        }
+    }
+
+    public void increment() {
+        increment(clock.getAsLong());
+    }
+
+    // For callers updating several counters at once; reading the clock is a large part of an increment
+    public void increment(long nowMillis) {
+        long number = nowMillis / bucketMillis;
+        int slot = (int) (number % buckets);
+        Bucket bucket = ring.get(slot);
+        if (bucket == null || bucket.number() < number) {
+            // First event in this bucket: replace the expired one. A thread losing the race uses the
+            // winner's bucket; one that still held the expired bucket adds to it and that event is lost,
+            // which only happens on a bucket boundary.
+            Bucket fresh = new Bucket(number, new LongAdder());
+            bucket = ring.compareAndSet(slot, bucket, fresh) ? fresh : ring.get(slot);
+        }
+        bucket.count().increment();
+    }
+
+    public long sum() {
+        long newest = clock.getAsLong() / bucketMillis;
+        long total = 0;
+        for (int slot = 0; slot < buckets; slot++) {
+            Bucket bucket = ring.get(slot);
+            if (bucket != null && bucket.number() > newest - buckets && bucket.number() <= newest) {
+                total += bucket.count().sum();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,34 @@
+package org.auth.fullauthenticationotp.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Mapped so auth_audit_log is part of the generated schema. Rows are only ever inserted, in
+// batches, by JdbcAuditSink; nothing loads them through JPA.
+@Entity
+@Table(name = "auth_audit_log")
+@Getter
+@NoArgsConstructor
+public class AuditLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false, length = 32)
+    private String eventType;
+
+    private String email;
+
+    @Column(length = 45)
+    private String ip;
+
+    @Column(length = 512)
+    private String userAgent;
+}
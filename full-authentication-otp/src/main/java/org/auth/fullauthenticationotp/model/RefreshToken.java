@@ -7,8 +7,12 @@ import lombok.*;
 
 import java.time.LocalDateTime;
 
+// One row per device session. The refresh token itself is signed and never stored; it names this
+// row and the version it was issued at. Each rotation bumps the version, so an older token is a replay.
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_sessions", indexes = {
+        @Index(name = "ix_refresh_sessions_user_last_used", columnList = "user_id, last_used_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,13 +23,16 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
     private User user;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
 
     @Column(nullable = false)
     private LocalDateTime expiryDate;
-}
\ No newline at end of file
+}
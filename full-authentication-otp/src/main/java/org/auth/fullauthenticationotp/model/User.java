@@ -2,6 +2,7 @@ package org.auth.fullauthenticationotp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.auth.fullauthenticationotp.util.EmailUtils;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,7 +11,12 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "ux_users_email_canonical", columnList = "email_canonical", unique = true),
+        // Prefix search in the admin user listing
+        @Index(name = "ix_users_first_name", columnList = "firstName"),
+        @Index(name = "ix_users_last_name", columnList = "lastName")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,6 +30,10 @@ public class User {
     @Column(unique = true, nullable = false)
     private String email;
 
+    // Nullable only so that rows created before this column existed can be backfilled
+    @Column(name = "email_canonical")
+    private String emailCanonical;
+
     @Column(nullable = false)
     private String password;
 
@@ -55,5 +65,16 @@ public class User {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Written only by UserActivityTracker, in batches; saving the entity never overwrites them
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime lastLoginAt;
+
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime lastSeenAt;
 
+    @PrePersist
+    @PreUpdate
+    void syncEmailCanonical() {
+        this.emailCanonical = EmailUtils.canonicalize(email);
+    }
 }
\ No newline at end of file
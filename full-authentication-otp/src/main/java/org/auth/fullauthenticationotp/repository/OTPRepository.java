@@ -1,5 +1,6 @@
 package org.auth.fullauthenticationotp.repository;
 
+import org.auth.fullauthenticationotp.datasource.ShardKey;
 import org.auth.fullauthenticationotp.model.OTP;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -8,6 +9,6 @@ import java.util.Optional;
 
 @Repository
 public interface OTPRepository extends JpaRepository<OTP, Long> {
-    Optional<OTP> findByEmailAndOtpCodeAndVerifiedFalse(String email, String otpCode);
-    void deleteByEmail(String email);
+    Optional<OTP> findByEmailAndOtpCodeAndVerifiedFalse(@ShardKey String email, String otpCode);
+    void deleteByEmail(@ShardKey String email);
 }
\ No newline at end of file
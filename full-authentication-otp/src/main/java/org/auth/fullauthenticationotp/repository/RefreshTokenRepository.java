@@ -1,17 +1,50 @@
 package org.auth.fullauthenticationotp.repository;
 
 
+import org.auth.fullauthenticationotp.datasource.ShardKey;
 import org.auth.fullauthenticationotp.model.RefreshToken;
 import org.auth.fullauthenticationotp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByToken(String token);
-    void deleteByUser(User user);
-    Optional<RefreshToken> findByUser(User user);
-}
\ No newline at end of file
+    @Query("select rt from RefreshToken rt join fetch rt.user u left join fetch u.roles where rt.id = :id")
+    Optional<RefreshToken> findWithUserById(@ShardKey @Param("id") Long id);
+
+    // Compare-and-set on the version: zero rows means the session was rotated elsewhere or revoked
+    @Modifying
+    @Query("update RefreshToken rt set rt.version = :version + 1, rt.lastUsedAt = :now " +
+            "where rt.id = :id and rt.version = :version")
+    int rotate(@ShardKey @Param("id") Long id, @Param("version") long version, @Param("now") LocalDateTime now);
+
+    @Query("select rt.id from RefreshToken rt where rt.user = :user")
+    List<Long> findIdsByUser(@ShardKey @Param("user") User user);
+
+    @Query("select rt.id from RefreshToken rt where rt.user = :user order by rt.lastUsedAt desc, rt.id desc")
+    List<Long> findIdsByUserNewestFirst(@ShardKey @Param("user") User user);
+
+    @Modifying
+    @Query("delete from RefreshToken rt where rt.id in :ids")
+    int deleteByIdIn(@ShardKey @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from RefreshToken rt where rt.id = :id and rt.user = :user")
+    int deleteByIdAndUser(@Param("id") Long id, @ShardKey @Param("user") User user);
+
+    // One round trip for a whole batch of one shard's sessions, users and roles included. Its own
+    // read-only transaction, since a batch spanning shards is split into one call per shard.
+    @Transactional(readOnly = true)
+    @Query("select rt from RefreshToken rt join fetch rt.user u left join fetch u.roles where rt.id in :ids")
+    List<RefreshToken> findAllWithUserByIdIn(@ShardKey @Param("ids") Collection<Long> ids);
+}
@@ -3,11 +3,16 @@ package org.auth.fullauthenticationotp.repository;
 import org.auth.fullauthenticationotp.model.Role;
 import org.auth.fullauthenticationotp.model.RoleType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.List;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Optional<Role> findByName(RoleType name);
-}
\ No newline at end of file
+
+    @Query("select r.name from Role r")
+    List<RoleType> findAllNames();
+}
@@ -1,13 +1,38 @@
 package org.auth.fullauthenticationotp.repository;
 
+import org.auth.fullauthenticationotp.datasource.ShardKey;
 import org.auth.fullauthenticationotp.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    boolean existsByEmail(String email);
-}
\ No newline at end of file
+    // Lookups by the canonical (trimmed, lower-cased) email hit ux_users_email_canonical. Read-only
+    // so that, outside a writing transaction, they are served by the replica when one is configured.
+    @Transactional(readOnly = true)
+    Optional<User> findByEmailCanonical(@ShardKey String emailCanonical);
+
+    @Transactional(readOnly = true)
+    boolean existsByEmailCanonical(@ShardKey String emailCanonical);
+
+    // Migration queries carry no shard key; callers bind each shard in turn
+    @Query("select u.id from User u where u.emailCanonical is null and u.id > :afterId order by u.id")
+    List<Long> findIdsWithoutEmailCanonical(@Param("afterId") long afterId, Pageable pageable);
+
+    // The account already holding the canonical email that user :id would get
+    @Query("select o.id from User o where o.emailCanonical = (select lower(trim(u.email)) from User u where u.id = :id)")
+    Optional<Long> findCanonicalEmailOwner(@Param("id") long id);
+
+    @Modifying
+    @Query("update User u set u.emailCanonical = lower(trim(u.email)) where u.id in :ids")
+    int backfillEmailCanonical(@Param("ids") Collection<Long> ids);
+}
@@ -2,8 +2,11 @@ package org.auth.fullauthenticationotp.security;
 
 
 import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.datasource.ReadYourWritesGuard;
+import org.auth.fullauthenticationotp.metrics.ServerTiming;
 import org.auth.fullauthenticationotp.model.User;
 import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.auth.fullauthenticationotp.util.EmailUtils;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,14 +22,24 @@ import java.util.stream.Collectors;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final ReadYourWritesGuard readYourWritesGuard;
 
+    // Read-only, so it is served by the replica when one is configured
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() ->
-                        new UsernameNotFoundException("User not found with email: " + email));
+        long start = System.nanoTime();
+        String emailKey = EmailUtils.canonicalize(email);
+        try {
+            return toUserDetails(readYourWritesGuard.read(emailKey, () -> userRepository.findByEmailCanonical(emailKey))
+                    .orElseThrow(() ->
+                            new UsernameNotFoundException("User not found with email: " + email)));
+        } finally {
+            ServerTiming.record(ServerTiming.Stage.USER, System.nanoTime() - start);
+        }
+    }
 
+    private UserDetails toUserDetails(User user) {
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())
                 .password(user.getPassword())
@@ -0,0 +1,176 @@
+package org.auth.fullauthenticationotp.security;
+
+import org.auth.tokenverifier.Base64Url;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Collection;
+
+// Issues HS256 access tokens for our one header and claim set without jjwt or Jackson.
+//
+// The encoded header is a constant, the claims JSON is written byte by byte into a per-thread
+// buffer, base64url-encoded in place next to it and signed with a per-thread Mac, so the only
+// allocation per token is the returned String. TokenVerifier checks the result in constant time.
+final class Hs256TokenSigner {
+
+    // base64url({"alg":"HS256"}), what jjwt emits for the same key and algorithm
+    private static final byte[] ENCODED_HEADER = "eyJhbGciOiJIUzI1NiJ9".getBytes(StandardCharsets.US_ASCII);
+    private static final int SIGNATURE_BYTES = 32;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final class Workspace {
+        final Mac mac;
+        final byte[] signature = new byte[SIGNATURE_BYTES];
+        byte[] claims = new byte[256];
+        byte[] token = new byte[512];
+        int length;
+
+        Workspace(SecretKey key) {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        }
+
+        void ensureClaims(int extra) {
+            if (length + extra > claims.length) {
+                claims = Arrays.copyOf(claims, Math.max(claims.length * 2, length + extra));
+            }
+        }
+
+        byte[] token(int size) {
+            if (token.length < size) {
+                token = new byte[size];
+            }
+            return token;
+        }
+    }
+
+    private final ThreadLocal<Workspace> workspaces;
+
+    Hs256TokenSigner(SecretKey key) {
+        this.workspaces = ThreadLocal.withInitial(() -> new Workspace(key));
+    }
+
+    String sign(String tokenId, String subject, long issuedAt, long expiresAt, Collection<String> roles) {
+        Workspace w = workspaces.get();
+        w.length = 0;
+        writeAscii(w, "{\"jti\":");
+        writeString(w, tokenId);
+        writeAscii(w, ",\"sub\":");
+        writeString(w, subject);
+        writeAscii(w, ",\"iat\":");
+        writeLong(w, issuedAt);
+        writeAscii(w, ",\"exp\":");
+        writeLong(w, expiresAt);
+        if (!roles.isEmpty()) {
+            writeAscii(w, ",\"roles\":[");
+            boolean first = true;
+            for (String role : roles) {
+                if (!first) {
+                    writeByte(w, ',');
+                }
+                writeString(w, role);
+                first = false;
+            }
+            writeByte(w, ']');
+        }
+        writeByte(w, '}');
+
+        int signedLength = ENCODED_HEADER.length + 1 + Base64Url.encodedLength(w.length);
+        byte[] token = w.token(signedLength + 1 + Base64Url.encodedLength(SIGNATURE_BYTES));
+        System.arraycopy(ENCODED_HEADER, 0, token, 0, ENCODED_HEADER.length);
+        token[ENCODED_HEADER.length] = '.';
+        Base64Url.encode(w.claims, w.length, token, ENCODED_HEADER.length + 1);
+
+        w.mac.update(token, 0, signedLength);
+        try {
+            w.mac.doFinal(w.signature, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 signing failed", e);
+        }
+        token[signedLength] = '.';
+        int end = Base64Url.encode(w.signature, SIGNATURE_BYTES, token, signedLength + 1);
+        return new String(token, 0, end, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeByte(Workspace w, char c) {
+        w.ensureClaims(1);
+        w.claims[w.length++] = (byte) c;
+    }
+
+    private static void writeAscii(Workspace w, String s) {
+        w.ensureClaims(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            w.claims[w.length++] = (byte) s.charAt(i);
+        }
+    }
+
+    private static void writeLong(Workspace w, long value) {
+        // Epoch seconds, never negative
+        w.ensureClaims(19);
+        int start = w.length;
+        do {
+            w.claims[w.length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = w.length - 1; i < j; i++, j--) {
+            byte tmp = w.claims[i];
+            w.claims[i] = w.claims[j];
+            w.claims[j] = tmp;
+        }
+    }
+
+    // JSON string as UTF-8; quotes, backslashes, control characters and lone surrogates are escaped
+    private static void writeString(Workspace w, String s) {
+        w.ensureClaims(s.length() * 6 + 2);
+        byte[] out = w.claims;
+        int pos = w.length;
+        out[pos++] = '"';
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    out[pos++] = '\\';
+                    out[pos++] = (byte) c;
+                } else if (c < 0x20) {
+                    pos = writeUnicodeEscape(out, pos, c);
+                } else {
+                    out[pos++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xc0 | c >> 6);
+                out[pos++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                out[pos++] = (byte) (0xf0 | cp >> 18);
+                out[pos++] = (byte) (0x80 | cp >> 12 & 0x3f);
+                out[pos++] = (byte) (0x80 | cp >> 6 & 0x3f);
+                out[pos++] = (byte) (0x80 | cp & 0x3f);
+            } else if (Character.isSurrogate(c)) {
+                pos = writeUnicodeEscape(out, pos, c);
+            } else {
+                out[pos++] = (byte) (0xe0 | c >> 12);
+                out[pos++] = (byte) (0x80 | c >> 6 & 0x3f);
+                out[pos++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        out[pos++] = '"';
+        w.length = pos;
+    }
+
+    private static int writeUnicodeEscape(byte[] out, int pos, char c) {
+        out[pos++] = '\\';
+        out[pos++] = 'u';
+        out[pos++] = HEX[c >> 12 & 0xf];
+        out[pos++] = HEX[c >> 8 & 0xf];
+        out[pos++] = HEX[c >> 4 & 0xf];
+        out[pos++] = HEX[c & 0xf];
+        return pos;
+    }
+}
@@ -6,12 +6,17 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.metrics.AuthMetrics;
+import org.auth.fullauthenticationotp.metrics.ServerTiming;
+import org.auth.fullauthenticationotp.service.UserActivityTracker;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.auth.tokenverifier.TokenVerificationException;
+import org.auth.tokenverifier.VerifiedToken;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
@@ -20,8 +25,16 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Lets logout revoke the presented token without verifying it a second time
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = "org.auth.fullauthenticationotp.security.VERIFIED_TOKEN";
+
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuthMetrics authMetrics;
+    private final UserActivityTracker userActivityTracker;
+    // Stateless, so one instance serves every request
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
 
     @Override
     protected void doFilterInternal(
@@ -32,19 +45,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities()
-                        );
-                authentication.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (StringUtils.hasText(jwt)) {
+                VerifiedToken token = verify(jwt);
+                if (token != null) {
+                    authenticate(request, token);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -53,6 +58,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Parsed once; the revocation check is two hash lookups. Invalid, expired and revoked tokens
+    // yield null and the request continues unauthenticated.
+    private VerifiedToken verify(String jwt) {
+        long start = System.nanoTime();
+        try {
+            VerifiedToken token = tokenProvider.verify(jwt);
+            boolean revoked = tokenRevocationService.isRevoked(token);
+            recordVerification(System.nanoTime() - start, true, revoked);
+            return revoked ? null : token;
+        } catch (TokenVerificationException ex) {
+            recordVerification(System.nanoTime() - start, false, false);
+            return null;
+        }
+    }
+
+    private void recordVerification(long nanos, boolean valid, boolean revoked) {
+        authMetrics.recordJwtVerification(nanos, valid, revoked);
+        ServerTiming.record(ServerTiming.Stage.JWT, nanos);
+    }
+
+    private void authenticate(HttpServletRequest request, VerifiedToken token) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(token.getSubject());
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()
+                );
+        authentication.setDetails(authenticationDetailsSource.buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        request.setAttribute(VERIFIED_TOKEN_ATTRIBUTE, token);
+        userActivityTracker.recordSeen(token.getSubject());
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
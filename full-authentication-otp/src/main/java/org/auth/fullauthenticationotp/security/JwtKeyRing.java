@@ -0,0 +1,255 @@
+package org.auth.fullauthenticationotp.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Holds the keys used to sign and verify access tokens.
+//
+// In HMAC mode tokens are signed with jwt.secret, exactly as before. In EdDSA/ES256 mode the key
+// pairs come from the keystore at jwt.keystore.location, shared by every instance, and are
+// identified by their RFC 7638 thumbprint (kid). The start of each certificate's validity is when
+// its key starts signing, so all instances agree on the roles without talking to each other:
+//   - active:  the key that started most recently; signs new tokens
+//   - next:    starts in the future; already published in the JWKS so downstream caches learn it
+//              before it signs anything
+//   - retired: superseded, but still verifies until the last token it can have signed has expired
+// Rotating means adding a key that starts at least jwt.jwks-max-age from now and removing retired
+// ones later. The keystore is re-read every jwt.keystore.reload-interval.
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    public enum SigningAlgorithm { HMAC, EdDSA, ES256 }
+
+    public record SigningKey(String kid, KeyPair keyPair, Instant activeFrom, Instant retiredUntil) {
+        public PrivateKey privateKey() {
+            return keyPair.getPrivate();
+        }
+    }
+
+    private record State(SigningKey active, List<SigningKey> next, List<SigningKey> retired,
+                         Map<String, PublicKey> verificationKeys, String jwksJson, String jwksEtag) {
+    }
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${jwt.signing-algorithm:HMAC}")
+    private SigningAlgorithm algorithm;
+
+    @Value("${jwt.keystore.location:}")
+    private String keystoreLocation;
+
+    @Value("${jwt.keystore.password:}")
+    private String keystorePassword;
+
+    @Value("${jwt.keystore.type:PKCS12}")
+    private String keystoreType;
+
+    @Value("${jwt.jwks-max-age:300}")
+    private long jwksMaxAge;
+
+    private Clock clock = Clock.systemUTC();
+
+    private SecretKey hmacKey;
+    private volatile State state;
+
+    @PostConstruct
+    void init() {
+        hmacKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        if (!isAsymmetric()) {
+            state = new State(null, List.of(), List.of(), Map.of(), "{\"keys\":[]}", "\"0\"");
+            return;
+        }
+        if (keystoreLocation.isBlank()) {
+            throw new IllegalStateException("jwt.keystore.location is required for jwt.signing-algorithm=" + algorithm);
+        }
+        publish(loadKeys());
+    }
+
+    public boolean isAsymmetric() {
+        return algorithm != SigningAlgorithm.HMAC;
+    }
+
+    public SecretKey hmacKey() {
+        return hmacKey;
+    }
+
+    public SigningKey activeKey() {
+        return state.active();
+    }
+
+    public SignatureAlgorithm signatureAlgorithm() {
+        return algorithm == SigningAlgorithm.ES256 ? Jwts.SIG.ES256 : Jwts.SIG.EdDSA;
+    }
+
+    // Returns null for an unknown (or already expired) key id
+    public PublicKey verificationKey(String kid) {
+        return state.verificationKeys().get(kid);
+    }
+
+    public String jwksJson() {
+        return state.jwksJson();
+    }
+
+    public String jwksEtag() {
+        return state.jwksEtag();
+    }
+
+    public long jwksMaxAge() {
+        return jwksMaxAge;
+    }
+
+    // Picks up added and removed keys, and moves next -> active -> retired as their start times pass
+    @Scheduled(fixedDelayString = "${jwt.keystore.reload-interval:60000}",
+            initialDelayString = "${jwt.keystore.reload-interval:60000}")
+    public synchronized void reload() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        String previousKid = state.active().kid();
+        try {
+            publish(loadKeys());
+        } catch (RuntimeException e) {
+            // Keep signing with what we have; a half-written keystore is retried on the next reload
+            log.error("Reloading JWT keys from {} failed", keystoreLocation, e);
+            return;
+        }
+        if (!previousKid.equals(state.active().kid())) {
+            log.info("Rotated JWT signing key, active kid={}", state.active().kid());
+        }
+    }
+
+    private List<SigningKey> loadKeys() {
+        Resource resource = new DefaultResourceLoader().getResource(keystoreLocation);
+        char[] password = keystorePassword.toCharArray();
+        List<SigningKey> keys = new ArrayList<>();
+        try (InputStream in = resource.getInputStream()) {
+            KeyStore keyStore = KeyStore.getInstance(keystoreType);
+            keyStore.load(in, password);
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (!keyStore.isKeyEntry(alias)) {
+                    continue;
+                }
+                X509Certificate certificate = (X509Certificate) keyStore.getCertificate(alias);
+                PublicKey publicKey = certificate.getPublicKey();
+                if (!matchesAlgorithm(publicKey)) {
+                    throw new IllegalStateException("Key " + alias + " in " + keystoreLocation
+                            + " is not a " + algorithm + " key");
+                }
+                PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, password);
+                String kid = Jwks.builder().key(publicKey).idFromThumbprint().build().getId();
+                keys.add(new SigningKey(kid, new KeyPair(publicKey, privateKey),
+                        certificate.getNotBefore().toInstant(), null));
+            }
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot load JWT keys from " + keystoreLocation, e);
+        }
+        return keys;
+    }
+
+    private boolean matchesAlgorithm(PublicKey key) {
+        return algorithm == SigningAlgorithm.ES256
+                ? key instanceof ECPublicKey ec && ec.getParams().getCurve().getField().getFieldSize() == 256
+                : key instanceof EdECPublicKey ed && "Ed25519".equals(ed.getParams().getName());
+    }
+
+    private void publish(List<SigningKey> keys) {
+        Instant now = clock.instant();
+        List<SigningKey> byStart = new ArrayList<>(keys);
+        byStart.sort(Comparator.comparing(SigningKey::activeFrom).reversed());
+
+        SigningKey active = null;
+        Instant supersededAt = null;
+        List<SigningKey> next = new ArrayList<>();
+        List<SigningKey> retired = new ArrayList<>();
+        for (SigningKey key : byStart) {
+            if (key.activeFrom().isAfter(now)) {
+                next.add(key);
+            } else if (active == null) {
+                active = key;
+                supersededAt = key.activeFrom();
+            } else {
+                // Signed until its successor started, so nothing it signed outlives that by more than jwt.expiration
+                Instant retiredUntil = supersededAt.plusMillis(jwtExpiration);
+                if (retiredUntil.isAfter(now)) {
+                    retired.add(new SigningKey(key.kid(), key.keyPair(), key.activeFrom(), retiredUntil));
+                }
+                supersededAt = key.activeFrom();
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("No key in " + keystoreLocation + " has started yet");
+        }
+
+        List<SigningKey> all = new ArrayList<>();
+        all.add(active);
+        all.addAll(next);
+        all.addAll(retired);
+
+        State previous = state;
+        // Only published keys matter: a keystore entry long past retirement is never served
+        for (SigningKey key : all) {
+            if (previous != null && previous.verificationKeys().get(key.kid()) == null
+                    && key.activeFrom().isBefore(now.plusSeconds(jwksMaxAge))) {
+                log.warn("JWT key {} signs within jwt.jwks-max-age of being published; "
+                        + "clients with a cached JWKS may reject its tokens until they refresh", key.kid());
+            }
+        }
+
+        Map<String, PublicKey> verificationKeys = new LinkedHashMap<>();
+        for (SigningKey key : all) {
+            verificationKeys.put(key.kid(), key.keyPair().getPublic());
+        }
+        String jwksJson = all.stream()
+                .map(key -> Jwks.json(toJwk(key)))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        String etag = "\"" + Integer.toHexString(jwksJson.hashCode()) + "\"";
+
+        state = new State(active, List.copyOf(next), List.copyOf(retired), Map.copyOf(verificationKeys), jwksJson, etag);
+    }
+
+    private PublicJwk<PublicKey> toJwk(SigningKey key) {
+        return Jwks.builder()
+                .key(key.keyPair().getPublic())
+                .id(key.kid())
+                .algorithm(signatureAlgorithm().getId())
+                .publicKeyUse("sig")
+                .build();
+    }
+}
@@ -1,63 +1,128 @@
 package org.auth.fullauthenticationotp.security;
 
-import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.metrics.ServerTiming;
+import org.auth.tokenverifier.TokenVerificationException;
+import org.auth.tokenverifier.TokenVerifier;
+import org.auth.tokenverifier.VerifiedToken;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+
 import javax.crypto.SecretKey;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Component
+@RequiredArgsConstructor
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtKeyRing keyRing;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // "fast" signs HMAC tokens with Hs256TokenSigner, "jjwt" with the jjwt builder (HS512 for our key size).
+    // Asymmetric keys always go through jjwt.
+    @Value("${jwt.codec:fast}")
+    private String codec = "fast";
+
+    // Kid-less tokens are HMAC-signed, the only kind issued before asymmetric signing. In EdDSA/ES256
+    // mode they are accepted only while migrating, for at most one jwt.expiration after the switch.
+    @Value("${jwt.accept-legacy-hmac-tokens:false}")
+    private boolean acceptLegacyHmacTokens;
+
+    private Hs256TokenSigner fastSigner;
+
+    // Shared verifier from the token-verifier module; resource servers embed the same code
+    private TokenVerifier verifier;
+
+    @PostConstruct
+    void init() {
+        SecretKey kidlessKey = !keyRing.isAsymmetric() || acceptLegacyHmacTokens ? keyRing.hmacKey() : null;
+        verifier = new TokenVerifier((algorithm, kid) ->
+                kid == null ? kidlessKey : keyRing.verificationKey(kid));
+
+        if (!"fast".equalsIgnoreCase(codec) && !"jjwt".equalsIgnoreCase(codec)) {
+            throw new IllegalStateException("jwt.codec must be fast or jjwt, not " + codec);
+        }
+        fastSigner = "fast".equalsIgnoreCase(codec) && !keyRing.isAsymmetric()
+                ? new Hs256TokenSigner(keyRing.hmacKey())
+                : null;
     }
 
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return generateTokenFromUsername(userDetails.getUsername());
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        return generateToken(userDetails.getUsername(), roles);
     }
 
     public String generateTokenFromUsername(String username) {
+        return generateToken(username, List.of());
+    }
+
+    // Roles are embedded so gateways and resource servers can authorize without calling back;
+    // the jti lets a single token be revoked on logout
+    public String generateToken(String username, Collection<String> roles) {
+        long start = System.nanoTime();
+        String token = sign(username, roles);
+        ServerTiming.record(ServerTiming.Stage.SIGN, System.nanoTime() - start);
+        return token;
+    }
+
+    private String sign(String username, Collection<String> roles) {
+        if (fastSigner != null) {
+            long issuedAt = System.currentTimeMillis() / 1000;
+            return fastSigner.sign(UUID.randomUUID().toString(), username,
+                    issuedAt, issuedAt + jwtExpiration / 1000, roles);
+        }
+
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(expiryDate);
+        if (!roles.isEmpty()) {
+            builder.claim("roles", roles);
+        }
+
+        if (keyRing.isAsymmetric()) {
+            JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
+            builder.header().keyId(signingKey.kid()).and()
+                    .signWith(signingKey.privateKey(), keyRing.signatureAlgorithm());
+        } else {
+            builder.signWith(keyRing.hmacKey());
+        }
+        return builder.compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Throws TokenVerificationException for anything that is not a valid, unexpired token
+    public VerifiedToken verify(String token) {
+        return verifier.verify(token);
+    }
 
-        return claims.getSubject();
+    public String getUsernameFromToken(String token) {
+        return verifier.verify(token).getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            verifier.verify(token);
             return true;
-        } catch (JwtException | IllegalArgumentException e) {
+        } catch (TokenVerificationException e) {
             return false;
         }
     }
-}
\ No newline at end of file
+}
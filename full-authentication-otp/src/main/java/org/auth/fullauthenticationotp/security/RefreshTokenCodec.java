@@ -0,0 +1,88 @@
+package org.auth.fullauthenticationotp.security;
+
+import org.auth.fullauthenticationotp.exception.InvalidTokenException;
+import org.auth.tokenverifier.Base64Url;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+// Self-contained refresh tokens: base64url(payload) "." base64url(HMAC-SHA256(payload)).
+// The payload is fixed-width binary (format, user id, session id, version, expiry) so it can be
+// checked without a database read or a JSON parser. A single dot keeps it distinct from a JWS.
+// Each token has exactly one accepted spelling: RefreshCoalescer and reuse detection key on the
+// token string. Keyed with jwt.refresh-secret, never the access-token secret.
+@Component
+public class RefreshTokenCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte FORMAT = 1;
+    private static final int PAYLOAD_BYTES = 1 + 8 + 8 + 8 + 8;
+    private static final int PAYLOAD_CHARS = 44;  // unpadded base64url of 33 bytes
+    private static final int SIGNATURE_BYTES = 32;
+    private static final int SIGNATURE_CHARS = 43;  // unpadded base64url of 32 bytes
+
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final ThreadLocal<Mac> macs;
+
+    public record Claims(long userId, long sessionId, long version, long expiresAt) {
+    }
+
+    public RefreshTokenCodec(@Value("${jwt.refresh-secret}") String secret) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        });
+    }
+
+    public String encode(Claims claims) {
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+                .put(FORMAT)
+                .putLong(claims.userId())
+                .putLong(claims.sessionId())
+                .putLong(claims.version())
+                .putLong(claims.expiresAt())
+                .array();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(macs.get().doFinal(payload));
+    }
+
+    // Checks shape, signature and expiry; session state is the caller's concern
+    public Claims decode(String token) {
+        if (token == null || token.length() != PAYLOAD_CHARS + 1 + SIGNATURE_CHARS
+                || token.charAt(PAYLOAD_CHARS) != '.') {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        // Base64Url rejects non-canonical trailing bits, unlike java.util.Base64
+        byte[] payload = new byte[PAYLOAD_BYTES];
+        byte[] signature = new byte[SIGNATURE_BYTES];
+        if (Base64Url.decode(token, 0, PAYLOAD_CHARS, payload) != PAYLOAD_BYTES
+                || Base64Url.decode(token, PAYLOAD_CHARS + 1, token.length(), signature) != SIGNATURE_BYTES) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        if (!MessageDigest.isEqual(macs.get().doFinal(payload), signature)) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        if (buffer.get() != FORMAT) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        Claims claims = new Claims(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        if (claims.expiresAt() < System.currentTimeMillis() / 1000) {
+            throw new InvalidTokenException("Refresh token expired");
+        }
+        return claims;
+    }
+}
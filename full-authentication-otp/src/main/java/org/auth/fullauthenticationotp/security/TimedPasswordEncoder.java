@@ -0,0 +1,40 @@
+package org.auth.fullauthenticationotp.security;
+
+import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.metrics.AuthMetrics;
+import org.auth.fullauthenticationotp.metrics.ServerTiming;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Times every hash and check of the wrapped encoder; login goes through matches() via the
+// DaoAuthenticationProvider, signup and password reset through encode()
+@RequiredArgsConstructor
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final AuthMetrics authMetrics;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        String encoded = delegate.encode(rawPassword);
+        long elapsed = System.nanoTime() - start;
+        authMetrics.recordPasswordEncode(elapsed);
+        ServerTiming.record(ServerTiming.Stage.PASSWORD, elapsed);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matched = delegate.matches(rawPassword, encodedPassword);
+        long elapsed = System.nanoTime() - start;
+        authMetrics.recordPasswordCheck(elapsed, matched);
+        ServerTiming.record(ServerTiming.Stage.PASSWORD, elapsed);
+        return matched;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,69 @@
+package org.auth.fullauthenticationotp.security;
+
+import org.auth.fullauthenticationotp.util.EmailUtils;
+import org.auth.tokenverifier.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory deny list for access tokens that were logged out before they expired.
+//
+// Two maps, both checked in O(1) by JwtAuthenticationFilter:
+//   - revoked jti -> the token's exp, for single-device logout
+//   - canonical subject -> "not before" second, for revoke-all; tokens issued before it are rejected
+// iat has whole-second precision, so a token issued in the second of a revoke-all stays valid: that is
+// what lets the user log in again right away. Callers revoke the token they were given by jti as well.
+// Entries are purged once every token they could match has expired on its own, so memory is
+// bounded by logouts within one jwt.expiration window. State is per instance.
+@Component
+public class TokenRevocationService {
+
+    private final ConcurrentHashMap<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> subjectsNotBefore = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    public void revoke(VerifiedToken token) {
+        if (token.getTokenId() == null) {
+            return;
+        }
+        long expiresAt = token.getExpiresAt() == VerifiedToken.NO_TIME
+                ? nowSeconds() + jwtExpiration / 1000
+                : token.getExpiresAt();
+        revokedTokenIds.put(token.getTokenId(), expiresAt);
+    }
+
+    public void revokeAllForSubject(String subject) {
+        subjectsNotBefore.merge(EmailUtils.canonicalize(subject), nowSeconds(), Math::max);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.getTokenId() != null && revokedTokenIds.containsKey(token.getTokenId())) {
+            return true;
+        }
+        if (subjectsNotBefore.isEmpty() || token.getSubject() == null) {
+            return false;
+        }
+        Long notBefore = subjectsNotBefore.get(EmailUtils.canonicalize(token.getSubject()));
+        return notBefore != null && token.getIssuedAt() < notBefore;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation-purge-interval:60000}")
+    public void purgeExpired() {
+        long now = nowSeconds();
+        long maxTokenLifetime = jwtExpiration / 1000;
+        revokedTokenIds.values().removeIf(expiresAt -> expiresAt < now);
+        subjectsNotBefore.values().removeIf(notBefore -> notBefore + maxTokenLifetime < now);
+    }
+
+    int size() {
+        return revokedTokenIds.size() + subjectsNotBefore.size();
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -1,48 +1,62 @@
 package org.auth.fullauthenticationotp.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.audit.AuditEvent;
+import org.auth.fullauthenticationotp.audit.AuditLog;
+import org.auth.fullauthenticationotp.datasource.ReadYourWritesGuard;
 import org.auth.fullauthenticationotp.dto.*;
 import org.auth.fullauthenticationotp.exception.*;
-import org.auth.fullauthenticationotp.model.RefreshToken;
+import org.auth.fullauthenticationotp.metrics.AuthFunnelStats;
 import org.auth.fullauthenticationotp.model.Role;
 import org.auth.fullauthenticationotp.model.RoleType;
 import org.auth.fullauthenticationotp.model.User;
 import org.auth.fullauthenticationotp.repository.OTPRepository;
-import org.auth.fullauthenticationotp.repository.RefreshTokenRepository;
 import org.auth.fullauthenticationotp.repository.RoleRepository;
 import org.auth.fullauthenticationotp.repository.UserRepository;
 import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.auth.fullauthenticationotp.security.TokenRevocationService;
+import org.auth.fullauthenticationotp.util.EmailUtils;
+import org.auth.tokenverifier.VerifiedToken;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
+// Every public method is timed as auth.service, tagged with the method name and exception
 @Service
+@Timed("auth.service")
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final OTPRepository otpRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
     private final EmailService emailService;
     private final OTPService otpService;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshSessionService refreshSessionService;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final AuthFunnelStats funnelStats;
+    private final AuditLog auditLog;
+    private final UserActivityTracker userActivityTracker;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
     @Transactional
     public void requestPasswordReset(String email) {
-        userRepository.findByEmail(email)
+        auditLog.record(AuditEvent.Type.PASSWORD_RESET_REQUESTED, email);
+        userRepository.findByEmailCanonical(EmailUtils.canonicalize(email))
                 .ifPresent(user -> {
                     // Send OTP for password reset without revealing whether the email exists to the caller
                     otpService.generateAndSendPasswordResetOTP(email);
@@ -52,7 +66,7 @@ public class AuthService {
     @Transactional
     public ApiResponse signup(SignupRequest request) {
         // Validate email uniqueness
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (userRepository.existsByEmailCanonical(EmailUtils.canonicalize(request.getEmail()))) {
             throw new EmailAlreadyExistsException("Email already registered");
         }
 
@@ -72,6 +86,8 @@ public class AuthService {
         user.setRoles(Set.of(userRole));
 
         userRepository.save(user);
+        readYourWritesGuard.recordWrite(user.getEmailCanonical());
+        funnelStats.record(AuthFunnelStats.Event.SIGNUP);
 
         // Generate and send OTP
         otpService.generateAndSendOTP(user.getEmail());
@@ -84,30 +100,42 @@ public class AuthService {
     @Transactional
     public AuthResponse login(LoginRequest request) {
         // Authenticate user
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
-
-        User user = userRepository.findByEmail(request.getEmail())
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getEmail(),
+                            request.getPassword()
+                    )
+            );
+        } catch (AuthenticationException e) {
+            funnelStats.record(AuthFunnelStats.Event.LOGIN_FAILURE);
+            auditLog.record(AuditEvent.Type.LOGIN_FAILURE, request.getEmail());
+            throw e;
+        }
+
+        User user = userRepository.findByEmailCanonical(EmailUtils.canonicalize(request.getEmail()))
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         // Check if email is verified
         if (!user.isEmailVerified()) {
+            funnelStats.record(AuthFunnelStats.Event.LOGIN_FAILURE);
+            auditLog.record(AuditEvent.Type.LOGIN_FAILURE, user.getEmail());
             throw new EmailNotVerifiedException("Please verify your email first");
         }
 
         // Generate tokens
         String accessToken = tokenProvider.generateToken(authentication);
-        RefreshToken refreshToken = otpService.createRefreshToken(user);
+        String refreshToken = refreshSessionService.create(user);
 
-        UserDTO userDTO = convertToUserDTO(user);
+        UserDTO userDTO = UserDTO.from(user);
+        funnelStats.record(AuthFunnelStats.Event.LOGIN);
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, user.getEmail());
+        userActivityTracker.recordLogin(user.getEmail());
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getToken())
+                .refreshToken(refreshToken)
                 .expiresIn(jwtExpiration / 1000)
                 .user(userDTO)
                 .build();
@@ -122,19 +150,22 @@ public class AuthService {
         }
 
         // Update user as verified and enabled
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = userRepository.findByEmailCanonical(EmailUtils.canonicalize(request.getEmail()))
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         user.setEmailVerified(true);
         user.setEnabled(true);
         userRepository.save(user);
+        readYourWritesGuard.recordWrite(user.getEmailCanonical());
+        funnelStats.record(AuthFunnelStats.Event.VERIFICATION);
 
         return new ApiResponse(true,
                 "Email verified successfully. You can now login", null);
     }
 
     public ApiResponse resendOTP(String email) {
-        User user = userRepository.findByEmail(email)
+        String emailKey = EmailUtils.canonicalize(email);
+        User user = readYourWritesGuard.read(emailKey, () -> userRepository.findByEmailCanonical(emailKey))
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         if (user.isEmailVerified()) {
@@ -146,23 +177,58 @@ public class AuthService {
         return new ApiResponse(true, "OTP sent successfully to " + email, null);
     }
 
-    @Transactional
+    // The refresh token rotates on every use; the response carries its replacement. No session or
+    // user read on the common path, see RefreshSessionService.
+    @Transactional(noRollbackFor = InvalidTokenException.class)
     public AuthResponse refreshToken(String refreshToken) {
-        return refreshTokenRepository.findByToken(refreshToken)
-                .map(otpService::verifyExpiration)
-                .map(RefreshToken::getUser)
-                .map(user -> {
-                    String accessToken = tokenProvider.generateTokenFromUsername(user.getEmail());
-                    return AuthResponse.builder()
-                            .accessToken(accessToken)
-                            .refreshToken(refreshToken)
-                            .expiresIn(jwtExpiration / 1000)
-                            .user(convertToUserDTO(user))
-                            .build();
-                })
-                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        RefreshSessionService.Rotation rotation;
+        try {
+            rotation = refreshSessionService.rotate(refreshToken);
+        } catch (InvalidTokenException e) {
+            funnelStats.record(AuthFunnelStats.Event.REFRESH_FAILURE);
+            auditLog.record(AuditEvent.Type.REFRESH_FAILURE, null);
+            throw e;
+        }
+        funnelStats.record(AuthFunnelStats.Event.REFRESH);
+        UserDTO user = rotation.user();
+        auditLog.record(AuditEvent.Type.REFRESH, user.getEmail());
+        userActivityTracker.recordSeen(user.getEmail());
+        String accessToken = tokenProvider.generateToken(user.getEmail(), List.copyOf(user.getRoles()));
+        return AuthResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(rotation.refreshToken())
+                .expiresIn(jwtExpiration / 1000)
+                .user(user)
+                .build();
+    }
+
+    // Revokes the presented access token and ends this device's refresh session. Without a refresh
+    // token the device cannot be told apart, so every session of the user is ended.
+    @Transactional
+    public ApiResponse logout(VerifiedToken accessToken, String refreshToken) {
+        tokenRevocationService.revoke(accessToken);
+        userRepository.findByEmailCanonical(EmailUtils.canonicalize(accessToken.getSubject()))
+                .ifPresent(user -> {
+                    if (refreshToken == null || refreshToken.isBlank()) {
+                        refreshSessionService.revokeAll(user);
+                    } else {
+                        refreshSessionService.revoke(user, refreshToken);
+                    }
+                });
+        return new ApiResponse(true, "Logged out successfully", null);
     }
 
+    // Every access token issued to the user before this second stops working, on all devices, and so
+    // does the presented one; tokens issued from now on, such as a fresh login's, are unaffected
+    @Transactional
+    public ApiResponse logoutAll(VerifiedToken accessToken) {
+        String email = accessToken.getSubject();
+        tokenRevocationService.revoke(accessToken);
+        tokenRevocationService.revokeAllForSubject(email);
+        userRepository.findByEmailCanonical(EmailUtils.canonicalize(email))
+                .ifPresent(refreshSessionService::revokeAll);
+        return new ApiResponse(true, "Logged out from all devices", null);
+    }
 
     @Transactional
     public ApiResponse resetPassword(ResetPasswordRequest request) {
@@ -173,29 +239,16 @@ public class AuthService {
             throw new InvalidOTPException("Invalid or expired OTP");
         }
 
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = userRepository.findByEmailCanonical(EmailUtils.canonicalize(request.getEmail()))
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        readYourWritesGuard.recordWrite(user.getEmailCanonical());
+        auditLog.record(AuditEvent.Type.PASSWORD_RESET, user.getEmail());
 
         return new ApiResponse(true,
                 "Password reset successful! Please login with your new password.",
                 null);
     }
-
-
-
-    private UserDTO convertToUserDTO(User user) {
-        return UserDTO.builder()
-                .id(user.getId())
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .emailVerified(user.isEmailVerified())
-                .roles(user.getRoles().stream()
-                        .map(role -> role.getName().name())
-                        .collect(Collectors.toSet()))
-                .build();
-    }
-}
\ No newline at end of file
+}
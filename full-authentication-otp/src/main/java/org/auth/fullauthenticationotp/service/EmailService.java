@@ -1,30 +1,36 @@
 package org.auth.fullauthenticationotp.service;
 
 import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.mail.MailTemplate;
+import org.auth.fullauthenticationotp.mail.MailTemplates;
+import org.auth.fullauthenticationotp.mail.RenderedMail;
+import org.auth.fullauthenticationotp.metrics.AuthMetrics;
+import org.auth.fullauthenticationotp.metrics.ServerTiming;
 import org.auth.fullauthenticationotp.exception.EmailSendingException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+
+// Messages come from the precompiled templates in MailTemplates, in the locale of the current
+// request (Accept-Language), as multipart text and HTML when the template has an HTML variant
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final AuthMetrics authMetrics;
+    private final MailTemplates mailTemplates;
+
+    @Value("${otp.expiration}")
+    private long otpExpiration;
 
     public void sendOTPEmail(String to, String otpCode) {
         try {
-            org.springframework.mail.SimpleMailMessage message =
-                    new org.springframework.mail.SimpleMailMessage();
-
-            message.setTo(to);
-            message.setSubject("Email Verification - OTP");
-            message.setText(
-                    "Your OTP for email verification is: " + otpCode + "\n\n" +
-                            "This OTP will expire in 5 minutes.\n\n" +
-                            "If you didn't request this, please ignore this email."
-            );
-
-            mailSender.send(message);
+            send(to, render(MailTemplate.OTP_VERIFICATION, otpCode), AuthMetrics.TYPE_OTP);
         } catch (Exception e) {
             throw new EmailSendingException("Failed to send OTP email", e);
         }
@@ -32,20 +38,37 @@ public class EmailService {
 
     public void sendPasswordResetOTPEmail(String to, String otpCode) {
         try {
-            org.springframework.mail.SimpleMailMessage message =
-                    new org.springframework.mail.SimpleMailMessage();
-
-            message.setTo(to);
-            message.setSubject("Password Reset - OTP");
-            message.setText(
-                    "Your OTP for password reset is: " + otpCode + "\n\n" +
-                            "This OTP will expire in 5 minutes.\n\n" +
-                            "If you didn't request this, please ignore this email."
-            );
-
-            mailSender.send(message);
+            send(to, render(MailTemplate.PASSWORD_RESET, otpCode), AuthMetrics.TYPE_PASSWORD_RESET);
         } catch (Exception e) {
             throw new EmailSendingException("Failed to send password reset OTP email", e);
         }
     }
-}
\ No newline at end of file
+
+    private RenderedMail render(MailTemplate template, String otpCode) {
+        return mailTemplates.render(template, LocaleContextHolder.getLocale(),
+                otpCode, String.valueOf(otpExpiration / 60000));
+    }
+
+    private void send(String to, RenderedMail mail, String type) {
+        long start = System.nanoTime();
+        boolean sent = false;
+        try {
+            mailSender.send(mimeMessage -> {
+                MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, mail.html() != null,
+                        StandardCharsets.UTF_8.name());
+                helper.setTo(to);
+                helper.setSubject(mail.subject());
+                if (mail.html() != null) {
+                    helper.setText(mail.text(), mail.html());
+                } else {
+                    helper.setText(mail.text());
+                }
+            });
+            sent = true;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            authMetrics.recordEmailSend(type, elapsed, sent);
+            ServerTiming.record(ServerTiming.Stage.MAIL, elapsed);
+        }
+    }
+}
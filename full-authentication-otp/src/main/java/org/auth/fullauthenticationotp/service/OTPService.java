@@ -1,12 +1,13 @@
 package org.auth.fullauthenticationotp.service;
 
 import lombok.RequiredArgsConstructor;
-import org.auth.fullauthenticationotp.exception.InvalidTokenException;
+import org.auth.fullauthenticationotp.audit.AuditEvent;
+import org.auth.fullauthenticationotp.audit.AuditLog;
+import org.auth.fullauthenticationotp.metrics.AuthFunnelStats;
+import org.auth.fullauthenticationotp.metrics.AuthMetrics;
 import org.auth.fullauthenticationotp.model.OTP;
-import org.auth.fullauthenticationotp.model.RefreshToken;
-import org.auth.fullauthenticationotp.model.User;
 import org.auth.fullauthenticationotp.repository.OTPRepository;
-import org.auth.fullauthenticationotp.repository.RefreshTokenRepository;
+import org.auth.fullauthenticationotp.util.EmailUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,15 +15,16 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.Random;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class OTPService {
 
     private final OTPRepository otpRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
     private final EmailService emailService;
+    private final AuthMetrics authMetrics;
+    private final AuthFunnelStats funnelStats;
+    private final AuditLog auditLog;
 
     @Value("${otp.expiration}")
     private long otpExpiration;
@@ -30,25 +32,27 @@ public class OTPService {
     @Value("${otp.length}")
     private int otpLength;
 
-    @Value("${jwt.refresh-expiration}")
-    private long refreshTokenExpiration;
-
     @Transactional
     public void generateAndSendOTP(String email) {
+        String emailKey = EmailUtils.canonicalize(email);
+
         // Delete existing OTPs
-        otpRepository.deleteByEmail(email);
+        otpRepository.deleteByEmail(emailKey);
 
         // Generate new OTP
         String otpCode = generateOTPCode();
         LocalDateTime expiryTime = LocalDateTime.now().plusSeconds(otpExpiration / 1000);
 
         OTP otp = OTP.builder()
-                .email(email)
+                .email(emailKey)
                 .otpCode(otpCode)
                 .expiryTime(expiryTime)
                 .build();
 
         otpRepository.save(otp);
+        authMetrics.otpIssued();
+        funnelStats.record(AuthFunnelStats.Event.OTP_ISSUED);
+        auditLog.record(AuditEvent.Type.OTP_ISSUED, emailKey);
 
         // Send email
         emailService.sendOTPEmail(email, otpCode);
@@ -56,19 +60,24 @@ public class OTPService {
 
     @Transactional
     public void generateAndSendPasswordResetOTP(String email) {
+        String emailKey = EmailUtils.canonicalize(email);
+
         // Delete existing OTPs (keep only one active code)
-        otpRepository.deleteByEmail(email);
+        otpRepository.deleteByEmail(emailKey);
 
         String otpCode = generateOTPCode();
         LocalDateTime expiryTime = LocalDateTime.now().plusSeconds(otpExpiration / 1000);
 
         OTP otp = OTP.builder()
-                .email(email)
+                .email(emailKey)
                 .otpCode(otpCode)
                 .expiryTime(expiryTime)
                 .build();
 
         otpRepository.save(otp);
+        authMetrics.otpIssued();
+        funnelStats.record(AuthFunnelStats.Event.OTP_ISSUED);
+        auditLog.record(AuditEvent.Type.OTP_ISSUED, emailKey);
 
         // Send reset-specific email
         emailService.sendPasswordResetOTPEmail(email, otpCode);
@@ -76,53 +85,32 @@ public class OTPService {
 
     public boolean validateOTP(String email, String otpCode) {
         Optional<OTP> otpOptional = otpRepository
-                .findByEmailAndOtpCodeAndVerifiedFalse(email, otpCode);
+                .findByEmailAndOtpCodeAndVerifiedFalse(EmailUtils.canonicalize(email), otpCode);
 
         if (otpOptional.isEmpty()) {
+            authMetrics.otpInvalid();
+            funnelStats.record(AuthFunnelStats.Event.OTP_FAILURE);
+            auditLog.record(AuditEvent.Type.OTP_REJECTED, email);
             return false;
         }
 
         OTP otp = otpOptional.get();
 
         if (otp.getExpiryTime().isBefore(LocalDateTime.now())) {
+            authMetrics.otpExpired();
+            funnelStats.record(AuthFunnelStats.Event.OTP_FAILURE);
+            auditLog.record(AuditEvent.Type.OTP_REJECTED, email);
             return false;
         }
 
         otp.setVerified(true);
         otpRepository.save(otp);
+        authMetrics.otpVerified();
+        auditLog.record(AuditEvent.Type.OTP_VERIFIED, email);
 
         return true;
     }
 
-    @Transactional
-    public RefreshToken createRefreshToken(User user) {
-
-        Optional<RefreshToken> existingToken = refreshTokenRepository.findByUser(user);
-
-        RefreshToken refreshToken;
-        if (existingToken.isPresent()) {
-            refreshToken = existingToken.get();
-            refreshToken.setToken(UUID.randomUUID().toString());
-            refreshToken.setExpiryDate(LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000));
-        } else {
-            refreshToken = RefreshToken.builder()
-                    .user(user)
-                    .token(UUID.randomUUID().toString())
-                    .expiryDate(LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000))
-                    .build();
-        }
-
-        return refreshTokenRepository.save(refreshToken);
-    }
-
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().isBefore(LocalDateTime.now())) {
-            refreshTokenRepository.delete(token);
-            throw new InvalidTokenException("Refresh token expired");
-        }
-        return token;
-    }
-
     private String generateOTPCode() {
         Random random = new Random();
         StringBuilder otp = new StringBuilder();
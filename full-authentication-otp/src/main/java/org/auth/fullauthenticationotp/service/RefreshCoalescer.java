@@ -0,0 +1,83 @@
+package org.auth.fullauthenticationotp.service;
+
+import org.auth.fullauthenticationotp.dto.AuthResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Single-flight for refresh: concurrent calls with the same refresh token (several tabs waking up at
+// once) share one AuthService.refreshToken run. A successful result is also served for a short window
+// after it completes, so a tab that arrives late with the just-rotated token gets the same response
+// instead of tripping reuse detection. Failures are shared with waiting callers but not kept.
+@Component
+public class RefreshCoalescer {
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    @Value("${jwt.refresh-reuse-window:5000}")
+    private long reuseWindowMillis;
+
+    private static final class Flight {
+        final CompletableFuture<AuthResponse> result = new CompletableFuture<>();
+        volatile long completedAt;
+
+        boolean isStale(long now, long windowNanos) {
+            return result.isDone() && (result.isCompletedExceptionally() || now - completedAt > windowNanos);
+        }
+    }
+
+    public AuthResponse refresh(String refreshToken, Function<String, AuthResponse> refresher) {
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(reuseWindowMillis);
+        Flight flight = new Flight();
+        while (true) {
+            Flight existing = flights.putIfAbsent(refreshToken, flight);
+            if (existing == null) {
+                return run(refreshToken, flight, refresher);
+            }
+            if (!existing.isStale(System.nanoTime(), windowNanos)) {
+                return await(existing);
+            }
+            if (flights.replace(refreshToken, existing, flight)) {
+                return run(refreshToken, flight, refresher);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-reuse-window:5000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(reuseWindowMillis);
+        flights.values().removeIf(flight -> flight.isStale(now, windowNanos));
+    }
+
+    private AuthResponse run(String refreshToken, Flight flight, Function<String, AuthResponse> refresher) {
+        try {
+            AuthResponse response = refresher.apply(refreshToken);
+            flight.completedAt = System.nanoTime();
+            flight.result.complete(response);
+            return response;
+        } catch (Throwable e) {
+            flight.result.completeExceptionally(e);
+            flights.remove(refreshToken, flight);
+            throw e;
+        }
+    }
+
+    private static AuthResponse await(Flight flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            // Rethrow the original so GlobalExceptionHandler maps it as usual
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
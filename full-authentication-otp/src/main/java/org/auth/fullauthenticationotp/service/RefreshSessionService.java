@@ -0,0 +1,208 @@
+package org.auth.fullauthenticationotp.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.auth.fullauthenticationotp.datasource.ShardRouter;
+import org.auth.fullauthenticationotp.dto.UserDTO;
+import org.auth.fullauthenticationotp.exception.InvalidTokenException;
+import org.auth.fullauthenticationotp.model.RefreshToken;
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.repository.RefreshTokenRepository;
+import org.auth.fullauthenticationotp.security.RefreshTokenCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Refresh sessions with signed tokens. A refresh verifies the signature, checks the version against
+// an in-memory copy of the session and writes one compare-and-set UPDATE; the session row and user are
+// read only on a cache miss. The table stays authoritative, so revocation and rotation on another
+// instance are still caught by the UPDATE.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshSessionService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenCodec refreshTokenCodec;
+    private final ShardRouter shardRouter;
+
+    @Value("${jwt.refresh-expiration}")
+    private long refreshTokenExpiration;
+
+    @Value("${jwt.refresh-max-sessions:5}")
+    private int maxSessions;
+
+    // Bounds how stale the cached user (email, names, roles) can get
+    @Value("${jwt.refresh-session-cache-ttl:900000}")
+    private long cacheTtl;
+
+    private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+
+    public record Session(long sessionId, long userId, long version, long expiresAt, UserDTO user, long loadedAt) {
+        Session withVersion(long newVersion) {
+            return new Session(sessionId, userId, newVersion, expiresAt, user, loadedAt);
+        }
+    }
+
+    public record Rotation(String refreshToken, UserDTO user) {
+    }
+
+    @Transactional
+    public String create(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken refreshToken = refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .version(0)
+                .lastUsedAt(now)
+                .expiryDate(now.plusSeconds(refreshTokenExpiration / 1000))
+                .build());
+
+        Session session = toSession(refreshToken, UserDTO.from(user));
+        sessions.put(session.sessionId(), session);
+        enforceSessionCap(user);
+        return encode(session);
+    }
+
+    // Presenting a token older than the session's version means it was copied, so the session is
+    // ended for both holders
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotation rotate(String token) {
+        RefreshTokenCodec.Claims claims = refreshTokenCodec.decode(token);
+        Session session = cachedOrLoad(claims.sessionId(), claims.version());
+        if (session == null || session.userId() != claims.userId()) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        if (claims.version() < session.version()) {
+            throw reuseDetected(session);
+        }
+
+        if (refreshTokenRepository.rotate(session.sessionId(), claims.version(), LocalDateTime.now()) == 0) {
+            // Rotated on another instance or revoked since it was cached
+            session = load(claims.sessionId());
+            if (session == null) {
+                throw new InvalidTokenException("Invalid refresh token");
+            }
+            throw reuseDetected(session);
+        }
+
+        Session rotated = session.withVersion(claims.version() + 1);
+        sessions.put(rotated.sessionId(), rotated);
+        return new Rotation(encode(rotated), rotated.user());
+    }
+
+    // Ends one device session; an unreadable or foreign token revokes nothing
+    @Transactional
+    public void revoke(User user, String token) {
+        RefreshTokenCodec.Claims claims;
+        try {
+            claims = refreshTokenCodec.decode(token);
+        } catch (InvalidTokenException e) {
+            return;
+        }
+        if (refreshTokenRepository.deleteByIdAndUser(claims.sessionId(), user) > 0) {
+            sessions.remove(claims.sessionId());
+        }
+    }
+
+    @Transactional
+    public void revokeAll(User user) {
+        List<Long> ids = refreshTokenRepository.findIdsByUser(user);
+        if (!ids.isEmpty()) {
+            refreshTokenRepository.deleteByIdIn(ids);
+            ids.forEach(sessions::remove);
+        }
+    }
+
+    // Current state of a batch of sessions, always read from the table with one IN query per shard:
+    // unlike rotate, introspection has no compare-and-set write to catch a session that another
+    // instance rotated or revoked since this one cached it. The loaded rows refresh the cache.
+    public Map<Long, Session> findSessions(Collection<Long> sessionIds) {
+        Map<Integer, List<Long>> byShard = new HashMap<>();
+        for (Long sessionId : sessionIds) {
+            byShard.computeIfAbsent(shardRouter.shardForId(sessionId), shard -> new ArrayList<>()).add(sessionId);
+        }
+        Map<Long, Session> found = new HashMap<>();
+        for (List<Long> ids : byShard.values()) {
+            for (RefreshToken refreshToken : refreshTokenRepository.findAllWithUserByIdIn(ids)) {
+                Session session = toSession(refreshToken, UserDTO.from(refreshToken.getUser()));
+                sessions.put(session.sessionId(), session);
+                found.put(session.sessionId(), session);
+            }
+        }
+        for (Long sessionId : sessionIds) {
+            if (!found.containsKey(sessionId)) {
+                sessions.remove(sessionId);
+            }
+        }
+        return found;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-session-purge-interval:60000}")
+    public void purgeCache() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session ->
+                session.expiresAt() * 1000 < now || session.loadedAt() + cacheTtl < now);
+    }
+
+    private void enforceSessionCap(User user) {
+        List<Long> ids = refreshTokenRepository.findIdsByUserNewestFirst(user);
+        if (ids.size() > maxSessions) {
+            List<Long> evicted = ids.subList(maxSessions, ids.size());
+            refreshTokenRepository.deleteByIdIn(evicted);
+            evicted.forEach(sessions::remove);
+        }
+    }
+
+    private Session cachedOrLoad(long sessionId, long presentedVersion) {
+        Session cached = sessions.get(sessionId);
+        if (isUsable(cached, presentedVersion, System.currentTimeMillis())) {
+            return cached;
+        }
+        return load(sessionId);
+    }
+
+    // A cached version below the presented one means another instance rotated it since
+    private boolean isUsable(Session cached, long presentedVersion, long now) {
+        return cached != null && cached.version() >= presentedVersion && cached.loadedAt() + cacheTtl >= now;
+    }
+
+    private Session load(long sessionId) {
+        Optional<RefreshToken> refreshToken = refreshTokenRepository.findWithUserById(sessionId);
+        if (refreshToken.isEmpty()) {
+            sessions.remove(sessionId);
+            return null;
+        }
+        Session session = toSession(refreshToken.get(), UserDTO.from(refreshToken.get().getUser()));
+        sessions.put(sessionId, session);
+        return session;
+    }
+
+    private InvalidTokenException reuseDetected(Session session) {
+        refreshTokenRepository.deleteByIdIn(List.of(session.sessionId()));
+        sessions.remove(session.sessionId());
+        log.warn("Refresh token reuse detected for session {} of user {}; session revoked",
+                session.sessionId(), session.userId());
+        return new InvalidTokenException("Refresh token reuse detected");
+    }
+
+    private String encode(Session session) {
+        return refreshTokenCodec.encode(new RefreshTokenCodec.Claims(
+                session.userId(), session.sessionId(), session.version(), session.expiresAt()));
+    }
+
+    private static Session toSession(RefreshToken refreshToken, UserDTO user) {
+        return new Session(
+                refreshToken.getId(),
+                user.getId(),
+                refreshToken.getVersion(),
+                refreshToken.getExpiryDate().atZone(ZoneId.systemDefault()).toEpochSecond(),
+                user,
+                System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,96 @@
+package org.auth.fullauthenticationotp.service;
+
+import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.dto.TokenIntrospectionResult;
+import org.auth.fullauthenticationotp.exception.InvalidTokenException;
+import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.auth.fullauthenticationotp.security.RefreshTokenCodec;
+import org.auth.fullauthenticationotp.security.TokenRevocationService;
+import org.auth.tokenverifier.TokenVerificationException;
+import org.auth.tokenverifier.VerifiedToken;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class TokenIntrospectionService {
+
+    private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenCodec refreshTokenCodec;
+    private final RefreshSessionService refreshSessionService;
+
+    // Access tokens are checked in memory; refresh tokens against the session table, with one IN query
+    // per shard for the whole batch
+    public List<TokenIntrospectionResult> introspect(List<String> tokens) {
+        TokenIntrospectionResult[] results = new TokenIntrospectionResult[tokens.size()];
+        RefreshTokenCodec.Claims[] refreshClaims = new RefreshTokenCodec.Claims[tokens.size()];
+        Set<Long> sessionIds = new HashSet<>();
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token == null || token.isBlank()) {
+                results[i] = TokenIntrospectionResult.inactive();
+            } else if (isJwt(token)) {
+                results[i] = introspectAccessToken(token);
+            } else {
+                try {
+                    refreshClaims[i] = refreshTokenCodec.decode(token);
+                    sessionIds.add(refreshClaims[i].sessionId());
+                } catch (InvalidTokenException e) {
+                    results[i] = TokenIntrospectionResult.inactive();
+                }
+            }
+        }
+
+        if (!sessionIds.isEmpty()) {
+            Map<Long, RefreshSessionService.Session> sessions = refreshSessionService.findSessions(sessionIds);
+            for (int i = 0; i < refreshClaims.length; i++) {
+                if (refreshClaims[i] != null) {
+                    results[i] = refreshTokenResult(refreshClaims[i], sessions.get(refreshClaims[i].sessionId()));
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private TokenIntrospectionResult introspectAccessToken(String token) {
+        try {
+            VerifiedToken verified = tokenProvider.verify(token);
+            if (tokenRevocationService.isRevoked(verified)) {
+                return TokenIntrospectionResult.inactive();
+            }
+            return TokenIntrospectionResult.builder()
+                    .active(true)
+                    .tokenType("access_token")
+                    .subject(verified.getSubject())
+                    .roles(verified.getRoles())
+                    .expiresAt(verified.getExpiresAt() == VerifiedToken.NO_TIME ? null : verified.getExpiresAt())
+                    .build();
+        } catch (TokenVerificationException e) {
+            return TokenIntrospectionResult.inactive();
+        }
+    }
+
+    // Only the current version of a live session is active; older versions were rotated away
+    private static TokenIntrospectionResult refreshTokenResult(RefreshTokenCodec.Claims claims,
+                                                               RefreshSessionService.Session session) {
+        if (session == null || session.version() != claims.version() || session.userId() != claims.userId()) {
+            return TokenIntrospectionResult.inactive();
+        }
+        return TokenIntrospectionResult.builder()
+                .active(true)
+                .tokenType("refresh_token")
+                .subject(session.user().getEmail())
+                .roles(List.copyOf(session.user().getRoles()))
+                .expiresAt(claims.expiresAt())
+                .build();
+    }
+
+    // Compact JWS has exactly two dots; refresh tokens have one
+    private static boolean isJwt(String token) {
+        int first = token.indexOf('.');
+        return first > 0 && token.indexOf('.', first + 1) > first;
+    }
+}
@@ -0,0 +1,142 @@
+package org.auth.fullauthenticationotp.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.auth.fullauthenticationotp.datasource.ShardRouter;
+import org.auth.fullauthenticationotp.util.EmailUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Write-behind for users.last_login_at and users.last_seen_at. Logins and authenticated requests only
+// update an in-memory entry per user, so any number of requests from one user between two flushes
+// cost one row update. Every user-activity.flush-interval the pending entries are swapped out and
+// written per shard as batched UPDATEs, user-activity.batch-size rows per transaction.
+//
+// A request racing with the swap can land in the map that was just flushed; the user's next request
+// records it again. The UPDATE only ever moves the timestamps forward, so instances flushing in any
+// order agree. Pending entries are flushed on shutdown as well.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserActivityTracker {
+
+    // greatest() is null on MySQL when either side is, hence the coalesce fallbacks
+    private static final String UPDATE = "update users"
+            + " set last_seen_at = coalesce(greatest(last_seen_at, :seen), :seen),"
+            + " last_login_at = coalesce(greatest(last_login_at, :login), :login, last_login_at)"
+            + " where email_canonical = :email";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${user-activity.batch-size:1000}")
+    private int batchSize;
+
+    private volatile ConcurrentHashMap<String, Activity> pending = new ConcurrentHashMap<>();
+
+    // Plain max updates: two racing requests can only differ by the time between them
+    private static final class Activity {
+        volatile long lastSeen;
+        volatile long lastLogin;
+    }
+
+    // Called for every authenticated request; no allocation once the user has an entry
+    public void recordSeen(String email) {
+        long now = System.currentTimeMillis();
+        Activity activity = activity(email);
+        if (now > activity.lastSeen) {
+            activity.lastSeen = now;
+        }
+    }
+
+    public void recordLogin(String email) {
+        long now = System.currentTimeMillis();
+        Activity activity = activity(email);
+        if (now > activity.lastLogin) {
+            activity.lastLogin = now;
+        }
+        if (now > activity.lastSeen) {
+            activity.lastSeen = now;
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${user-activity.flush-interval:30000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Activity> flushing = pending;
+        pending = new ConcurrentHashMap<>();
+
+        // Keys are token subjects as presented; spellings of one email are merged into one update
+        Map<Integer, Map<String, Update>> byShard = new HashMap<>();
+        flushing.forEach((email, activity) -> {
+            if (activity.lastSeen == 0) {
+                // Created by a request that has not stored its time yet
+                return;
+            }
+            String emailKey = EmailUtils.canonicalize(email);
+            byShard.computeIfAbsent(shardRouter.shardForEmail(emailKey), shard -> new HashMap<>())
+                    .merge(emailKey, new Update(emailKey, activity.lastSeen, activity.lastLogin), Update::latest);
+        });
+        byShard.forEach((shard, updates) -> {
+            try {
+                write(shard, new ArrayList<>(updates.values()));
+            } catch (RuntimeException e) {
+                // Dropped rather than retried: the next request of each user records it again
+                log.warn("Flushing activity of {} users on shard {} failed", updates.size(), shard, e);
+            }
+        });
+    }
+
+    int pendingUsers() {
+        return pending.size();
+    }
+
+    private Activity activity(String email) {
+        ConcurrentHashMap<String, Activity> current = pending;
+        Activity activity = current.get(email);
+        return activity != null ? activity : current.computeIfAbsent(email, key -> new Activity());
+    }
+
+    private void write(int shard, List<Update> updates) {
+        shardRouter.onShard(shard, () -> {
+            for (int from = 0; from < updates.size(); from += batchSize) {
+                SqlParameterSource[] batch = updates.subList(from, Math.min(from + batchSize, updates.size())).stream()
+                        .map(Update::parameters)
+                        .toArray(SqlParameterSource[]::new);
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE, batch));
+            }
+            return null;
+        });
+    }
+
+    private record Update(String email, long lastSeen, long lastLogin) {
+
+        Update latest(Update other) {
+            return new Update(email, Math.max(lastSeen, other.lastSeen), Math.max(lastLogin, other.lastLogin));
+        }
+
+        SqlParameterSource parameters() {
+            return new MapSqlParameterSource("email", email)
+                    .addValue("seen", new Timestamp(lastSeen))
+                    .addValue("login", lastLogin == 0 ? null : new Timestamp(lastLogin), Types.TIMESTAMP);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.auth.fullauthenticationotp.service;
+
+import org.auth.fullauthenticationotp.dto.UserImportRow;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Reads an import file one line at a time: NDJSON (one JSON object per line) or CSV with a header
+// row naming the UserImportRow fields. A line that does not parse becomes a row with an error
+// instead of failing the import. CSV fields may be quoted but must not contain line breaks.
+class UserImportReader implements Closeable {
+
+    enum Format {
+        NDJSON, CSV
+    }
+
+    record ParsedRow(long line, UserImportRow row, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final JsonMapper jsonMapper;
+    private String[] columns;
+    private long lineNumber;
+
+    UserImportReader(InputStream input, Format format, JsonMapper jsonMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.jsonMapper = jsonMapper;
+    }
+
+    // Up to max rows; empty at the end of the input
+    List<ParsedRow> next(int max) throws IOException {
+        List<ParsedRow> rows = new ArrayList<>(max);
+        String line;
+        while (rows.size() < max && (line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = splitCsv(line).toArray(String[]::new);
+                continue;
+            }
+            rows.add(parse(line));
+        }
+        return rows;
+    }
+
+    private ParsedRow parse(String line) {
+        try {
+            UserImportRow row = format == Format.NDJSON
+                    ? jsonMapper.readValue(line, UserImportRow.class)
+                    : fromCsv(splitCsv(line));
+            return new ParsedRow(lineNumber, row, null);
+        } catch (JacksonException e) {
+            return new ParsedRow(lineNumber, null, "unreadable row: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return new ParsedRow(lineNumber, null, "unreadable row: " + e.getMessage());
+        }
+    }
+
+    private UserImportRow fromCsv(List<String> values) {
+        if (values.size() != columns.length) {
+            throw new IllegalArgumentException(values.size() + " fields, header has " + columns.length);
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            fields.put(columns[i].trim().toLowerCase(Locale.ROOT), values.get(i).isEmpty() ? null : values.get(i));
+        }
+        return new UserImportRow(fields.get("email"), fields.get("password"), fields.get("passwordhash"),
+                fields.get("firstname"), fields.get("lastname"), Boolean.parseBoolean(fields.get("emailverified")));
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quote");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,257 @@
+package org.auth.fullauthenticationotp.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.auth.fullauthenticationotp.datasource.ShardRouter;
+import org.auth.fullauthenticationotp.dto.UserImportProgress;
+import org.auth.fullauthenticationotp.dto.UserImportRow;
+import org.auth.fullauthenticationotp.model.Role;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.repository.RoleRepository;
+import org.auth.fullauthenticationotp.util.EmailUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Bulk import of legacy accounts. The upload is read a batch at a time; each batch is validated and
+// its plain-text passwords hashed in parallel on a dedicated ForkJoinPool while the previous batch is
+// written, so memory stays at two batches whatever the file size. Writes bypass Hibernate (which cannot
+// batch IDENTITY inserts): one JDBC batch for the users and one for their roles per batch and shard.
+// Accounts that already exist are skipped and no OTP mail is sent.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ShardRouter shardRouter;
+    private final JsonMapper jsonMapper;
+
+    @Value("${user-import.batch-size:500}")
+    private int batchSize;
+
+    // Threads hashing plain-text passwords; 0 means one per core
+    @Value("${user-import.hash-parallelism:0}")
+    private int hashParallelism;
+
+    @Value("${user-import.progress-interval:10000}")
+    private long progressInterval;
+
+    record PreparedRow(long line, String email, String emailCanonical, String passwordHash,
+                       String firstName, String lastName, boolean emailVerified, String error) {
+        static PreparedRow failed(long line, String error) {
+            return new PreparedRow(line, null, null, null, null, null, false, error);
+        }
+    }
+
+    // Reports progress to the listener every progress-interval rows and returns the final tally. An
+    // unreadable upload or a database failure stops the import; what was written by then stays.
+    public UserImportProgress importUsers(InputStream input, String contentType, Consumer<UserImportProgress> listener) {
+        UserImportReader.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? UserImportReader.Format.CSV : UserImportReader.Format.NDJSON;
+        int parallelism = hashParallelism > 0 ? hashParallelism : Runtime.getRuntime().availableProcessors();
+        Tally tally = new Tally(System.nanoTime());
+        long nextReport = progressInterval;
+
+        try (UserImportReader reader = new UserImportReader(input, format, jsonMapper);
+             ForkJoinPool hashPool = new ForkJoinPool(parallelism)) {
+            Future<List<PreparedRow>> pending = null;
+            List<UserImportReader.ParsedRow> rows;
+            while (!(rows = reader.next(batchSize)).isEmpty()) {
+                List<UserImportReader.ParsedRow> batch = rows;
+                Future<List<PreparedRow>> hashing = hashPool.submit(() -> prepare(batch));
+                if (pending != null) {
+                    write(pending.get(), tally);
+                }
+                pending = hashing;
+                if (tally.processed >= nextReport) {
+                    listener.accept(tally.report(false));
+                    nextReport = tally.processed + progressInterval;
+                }
+            }
+            if (pending != null) {
+                write(pending.get(), tally);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tally.aborted = "interrupted";
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            log.error("User import stopped after {} rows", tally.processed, e);
+            tally.aborted = e.getMessage();
+        }
+
+        UserImportProgress result = tally.report(true);
+        log.info("User import {}: {} rows, {} imported, {} skipped, {} failed in {} ms",
+                result.getAborted() == null ? "finished" : "aborted", result.getProcessed(), result.getImported(),
+                result.getSkipped(), result.getFailed(), result.getElapsedMs());
+        return result;
+    }
+
+    // Runs on the hash pool, so the parallel stream is spread over its threads rather than the common pool
+    private List<PreparedRow> prepare(List<UserImportReader.ParsedRow> rows) {
+        return rows.parallelStream().map(this::prepare).toList();
+    }
+
+    private PreparedRow prepare(UserImportReader.ParsedRow parsed) {
+        if (parsed.error() != null) {
+            return PreparedRow.failed(parsed.line(), parsed.error());
+        }
+        UserImportRow row = parsed.row();
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return PreparedRow.failed(parsed.line(), violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        boolean plainText = row.getPassword() != null && !row.getPassword().isEmpty();
+        if (plainText == (row.getPasswordHash() != null)) {
+            return PreparedRow.failed(parsed.line(), "exactly one of password and passwordHash is required");
+        }
+        String passwordHash;
+        try {
+            passwordHash = plainText ? passwordEncoder.encode(row.getPassword()) : row.getPasswordHash();
+        } catch (RuntimeException e) {
+            // Thrown inside the parallel stream it would abort the whole import, not just this row
+            return PreparedRow.failed(parsed.line(), "password: " + e.getMessage());
+        }
+        return new PreparedRow(parsed.line(), row.getEmail(), EmailUtils.canonicalize(row.getEmail()), passwordHash,
+                row.getFirstName(), row.getLastName(), Boolean.TRUE.equals(row.getEmailVerified()), null);
+    }
+
+    private void write(List<PreparedRow> rows, Tally tally) {
+        Map<Integer, List<PreparedRow>> byShard = new TreeMap<>();
+        Set<String> inBatch = new HashSet<>();
+        for (PreparedRow row : rows) {
+            tally.processed++;
+            if (row.error() != null) {
+                tally.fail(row.line(), row.error());
+            } else if (!inBatch.add(row.emailCanonical())) {
+                tally.skipped++;
+            } else {
+                byShard.computeIfAbsent(shardRouter.shardForEmail(row.emailCanonical()), shard -> new ArrayList<>())
+                        .add(row);
+            }
+        }
+        byShard.forEach((shard, shardRows) -> shardRouter.onShard(shard, () -> {
+            writeShard(shardRows, tally);
+            return null;
+        }));
+    }
+
+    private void writeShard(List<PreparedRow> rows, Tally tally) {
+        try {
+            int inserted = transactionTemplate.execute(status -> insertNew(rows));
+            tally.imported += inserted;
+            tally.skipped += rows.size() - inserted;
+        } catch (DataIntegrityViolationException e) {
+            // Someone registered one of these emails since the existence check; retry row by row
+            for (PreparedRow row : rows) {
+                try {
+                    int inserted = transactionTemplate.execute(status -> insertNew(List.of(row)));
+                    tally.imported += inserted;
+                    tally.skipped += 1 - inserted;
+                } catch (DataIntegrityViolationException conflict) {
+                    tally.fail(row.line(), "conflicts with an existing account");
+                }
+            }
+        }
+    }
+
+    private int insertNew(List<PreparedRow> rows) {
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "select email_canonical from users where email_canonical in (:emails)",
+                Map.of("emails", rows.stream().map(PreparedRow::emailCanonical).toList()), String.class));
+        List<PreparedRow> fresh = rows.stream().filter(row -> !existing.contains(row.emailCanonical())).toList();
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+        Role userRole = roleRepository.findByName(RoleType.ROLE_USER)
+                .orElseThrow(() -> new RuntimeException("Default role not found"));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        SqlParameterSource[] users = fresh.stream().map(row -> new MapSqlParameterSource()
+                .addValue("email", row.email())
+                .addValue("emailCanonical", row.emailCanonical())
+                .addValue("password", row.passwordHash())
+                .addValue("firstName", row.firstName())
+                .addValue("lastName", row.lastName())
+                .addValue("verified", row.emailVerified())
+                .addValue("now", now)).toArray(SqlParameterSource[]::new);
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate("insert into users (email, email_canonical, password, first_name, last_name,"
+                + " email_verified, enabled, created_at, updated_at) values (:email, :emailCanonical, :password,"
+                + " :firstName, :lastName, :verified, :verified, :now, :now)", users, keys);
+
+        SqlParameterSource[] roles = keys.getKeyList().stream().map(key -> new MapSqlParameterSource()
+                .addValue("userId", ((Number) key.values().iterator().next()).longValue())
+                .addValue("roleId", userRole.getId())).toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("insert into user_roles (user_id, role_id) values (:userId, :roleId)", roles);
+        return fresh.size();
+    }
+
+    // Only touched by the importing thread
+    private static final class Tally {
+        private final long startNanos;
+        private final List<String> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long skipped;
+        private long failed;
+        private String aborted;
+
+        private Tally(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        private void fail(long line, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + line + ": " + error);
+            }
+        }
+
+        private UserImportProgress report(boolean done) {
+            long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+            return UserImportProgress.builder()
+                    .processed(processed)
+                    .imported(imported)
+                    .skipped(skipped)
+                    .failed(failed)
+                    .elapsedMs(elapsedMs)
+                    .rowsPerSecond(processed * 1000 / Math.max(1, elapsedMs))
+                    .done(done)
+                    .errors(done ? List.copyOf(errors) : null)
+                    .aborted(aborted)
+                    .build();
+        }
+    }
+}
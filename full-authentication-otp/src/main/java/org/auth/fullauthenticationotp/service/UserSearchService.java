@@ -0,0 +1,180 @@
+package org.auth.fullauthenticationotp.service;
+
+import lombok.RequiredArgsConstructor;
+import org.auth.fullauthenticationotp.datasource.ShardRouter;
+import org.auth.fullauthenticationotp.dto.UserDTO;
+import org.auth.fullauthenticationotp.dto.UserPage;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.util.EmailUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Admin listing, search and export of users. Pages are keyset-paginated on id: a page is "the next
+// n users with id > after", which costs the same on page 10,000 as on page 1, unlike an offset.
+// Shards own increasing id ranges, so walking the shards in order keeps one global id order.
+// Queries are read-only transactions and go to the replica when one is configured.
+@Service
+@RequiredArgsConstructor
+public class UserSearchService {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+
+    // Rows fetched per round trip while exporting. MySQL only streams with useCursorFetch=true in
+    // the JDBC URL; without it the driver reads the whole result into memory.
+    @Value("${user-export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    // Prefixes match the start of the canonical email, or of the first or last name; the roles
+    // filter matches users holding any of them. Null or empty means no filter.
+    public record Filter(String emailPrefix, String namePrefix, Set<RoleType> roles) {
+    }
+
+    public UserPage search(Filter filter, long after, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<UserDTO> users = new ArrayList<>(pageSize);
+        for (int shard = shardRouter.shardForId(after); shard < shardRouter.shardCount() && users.size() < pageSize; shard++) {
+            int remaining = pageSize - users.size();
+            users.addAll(readOnShard(shard, status -> page(filter, after, remaining)));
+        }
+        Long nextAfter = users.size() == pageSize ? users.get(users.size() - 1).getId() : null;
+        return new UserPage(users, nextAfter);
+    }
+
+    // Streams every matching user in id order through a forward-only cursor; one user is held at a time
+    public void export(Filter filter, Consumer<UserDTO> sink) {
+        JdbcTemplate cursor = new JdbcTemplate(dataSource);
+        cursor.setFetchSize(exportFetchSize);
+        NamedParameterJdbcTemplate exportTemplate = new NamedParameterJdbcTemplate(cursor);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        // One row per user and role, ordered by user, so a user is complete when the id changes
+        String sql = "select u.id, u.email, u.first_name, u.last_name, u.email_verified, r.name as role"
+                + " from users u left join user_roles ur on ur.user_id = u.id left join roles r on r.id = ur.role_id"
+                + " where 1 = 1" + where(filter, params) + " order by u.id";
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            readOnShard(shard, status -> {
+                UserAssembler assembler = new UserAssembler(sink);
+                exportTemplate.query(sql, params, assembler);
+                assembler.flush();
+                return null;
+            });
+        }
+    }
+
+    private List<UserDTO> page(Filter filter, long after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("after", after).addValue("limit", limit);
+        List<UserDTO> users = jdbcTemplate.query("select u.id, u.email, u.first_name, u.last_name, u.email_verified"
+                        + " from users u where u.id > :after" + where(filter, params) + " order by u.id limit :limit",
+                params, (rs, rowNum) -> UserDTO.builder()
+                        .id(rs.getLong("id"))
+                        .email(rs.getString("email"))
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .emailVerified(rs.getBoolean("email_verified"))
+                        .roles(new HashSet<>())
+                        .build());
+        if (users.isEmpty()) {
+            return users;
+        }
+        // Roles for the whole page in one query rather than one per user
+        Map<Long, UserDTO> byId = new HashMap<>();
+        users.forEach(user -> byId.put(user.getId(), user));
+        jdbcTemplate.query("select ur.user_id, r.name from user_roles ur join roles r on r.id = ur.role_id"
+                        + " where ur.user_id in (:ids)", Map.of("ids", byId.keySet()),
+                (RowCallbackHandler) rs -> byId.get(rs.getLong("user_id")).getRoles().add(rs.getString("name")));
+        return users;
+    }
+
+    // Email prefixes use ux_users_email_canonical, name prefixes ix_users_first_name and
+    // ix_users_last_name; the roles filter is a semi-join through the user_roles primary key
+    private static String where(Filter filter, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder();
+        if (filter.emailPrefix() != null && !filter.emailPrefix().isBlank()) {
+            where.append(" and u.email_canonical like :email escape '" + LIKE_ESCAPE + "'");
+            params.addValue("email", likePrefix(EmailUtils.canonicalize(filter.emailPrefix())));
+        }
+        if (filter.namePrefix() != null && !filter.namePrefix().isBlank()) {
+            where.append(" and (u.first_name like :name escape '" + LIKE_ESCAPE + "'"
+                    + " or u.last_name like :name escape '" + LIKE_ESCAPE + "')");
+            params.addValue("name", likePrefix(filter.namePrefix().trim()));
+        }
+        if (filter.roles() != null && !filter.roles().isEmpty()) {
+            where.append(" and exists (select 1 from user_roles fr join roles frr on frr.id = fr.role_id"
+                    + " where fr.user_id = u.id and frr.name in (:roles))");
+            params.addValue("roles", filter.roles().stream().map(RoleType::name).toList());
+        }
+        return where.toString();
+    }
+
+    private static String likePrefix(String prefix) {
+        StringBuilder escaped = new StringBuilder(prefix.length() + 1);
+        for (char c : prefix.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.append('%').toString();
+    }
+
+    private <T> T readOnShard(int shard, TransactionCallback<T> action) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return shardRouter.onShard(shard, () -> readOnly.execute(action));
+    }
+
+    private static final class UserAssembler implements RowCallbackHandler {
+        private final Consumer<UserDTO> sink;
+        private UserDTO current;
+
+        private UserAssembler(Consumer<UserDTO> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (current == null || current.getId() != id) {
+                flush();
+                current = UserDTO.builder()
+                        .id(id)
+                        .email(rs.getString("email"))
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .emailVerified(rs.getBoolean("email_verified"))
+                        .roles(new HashSet<>())
+                        .build();
+            }
+            String role = rs.getString("role");
+            if (role != null) {
+                current.getRoles().add(role);
+            }
+        }
+
+        private void flush() {
+            if (current != null) {
+                sink.accept(current);
+                current = null;
+            }
+        }
+    }
+}
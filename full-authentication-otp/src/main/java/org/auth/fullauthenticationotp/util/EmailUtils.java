@@ -0,0 +1,18 @@
+package org.auth.fullauthenticationotp.util;
+
+import java.util.Locale;
+
+public final class EmailUtils {
+
+    private EmailUtils() {
+    }
+
+    // Canonical form used for lookups and uniqueness: trimmed and lower-cased.
+    // Must stay in sync with LOWER(TRIM(email)) used by the backfill migration.
+    public static String canonicalize(String email) {
+        if (email == null) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,113 @@
+package org.auth.fullauthenticationotp.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Responses by idempotency key, for IdempotencyFilter. The first request with a key claims an entry
+// and completes it with its response; duplicates find the entry and wait on it. Bounded to
+// idempotency.max-entries, oldest first, and entries expire idempotency.ttl ms after they were
+// claimed. Guarded by the map's monitor, held only for lookups: the endpoints behind it hash
+// passwords and send mail, so a lock per request costs nothing by comparison.
+@Component
+public class IdempotencyCache {
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${idempotency.ttl:86400000}")
+    private long ttlMillis;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    record CachedResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+    }
+
+    static final class Entry {
+        private final byte[] fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<CachedResponse> response = new CompletableFuture<>();
+
+        private Entry(byte[] fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean matches(byte[] requestFingerprint) {
+            return Arrays.equals(fingerprint, requestFingerprint);
+        }
+
+        CompletableFuture<CachedResponse> response() {
+            return response;
+        }
+    }
+
+    // owner is true when the caller created the entry and must complete it
+    record Claim(Entry entry, boolean owner) {
+    }
+
+    Claim claim(String key, byte[] fingerprint) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry existing = entries.get(key);
+            if (existing != null && existing.expiresAt > now) {
+                return new Claim(existing, false);
+            }
+            Entry entry = new Entry(fingerprint, now + ttlMillis);
+            // Removed first so a reclaimed key moves to the tail and claim order stays expiry order
+            entries.remove(key);
+            entries.put(key, entry);
+            return new Claim(entry, true);
+        }
+    }
+
+    // Waiting duplicates get the response either way; only a kept one is replayed to later requests
+    void complete(String key, Entry entry, CachedResponse response, boolean keep) {
+        if (!keep) {
+            remove(key, entry);
+        }
+        entry.response.complete(response);
+    }
+
+    // The request produced no response; waiting duplicates run it themselves
+    void fail(String key, Entry entry, Throwable failure) {
+        remove(key, entry);
+        entry.response.completeExceptionally(failure);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            // Insertion order is claim order, so expired entries are all at the head
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext() && iterator.next().expiresAt <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+}
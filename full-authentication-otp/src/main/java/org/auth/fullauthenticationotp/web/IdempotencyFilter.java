@@ -0,0 +1,244 @@
+package org.auth.fullauthenticationotp.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Idempotency-Key support for the endpoints clients retry on flaky networks. The first request with
+// a key runs normally and its response (status, headers it set, body) is kept in IdempotencyCache;
+// a retry with the same key gets that response replayed, marked Idempotent-Replayed: true, without
+// hashing a password, writing or sending mail again. A retry that arrives while the first is still
+// running waits for it, up to idempotency.wait-timeout ms, instead of running alongside it.
+//
+// Keys are scoped to the endpoint. Reusing a key with a different request (query, form or body) is
+// rejected with 422. 5xx responses are shared with waiting retries but not kept, so a later retry
+// runs again. Runs after the security filter chain (order -100).
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> PATHS = Set.of("/api/auth/signup", "/api/auth/resend-otp", "/api/auth/forgot-password");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyCache cache;
+
+    @Value("${idempotency.wait-timeout:30000}")
+    private long waitTimeoutMillis;
+
+    @Value("${idempotency.max-body-size:16384}")
+    private int maxBodySize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !PATHS.contains(request.getServletPath())
+                || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        MessageDigest fingerprint = sha256();
+        fingerprint.update(String.valueOf(request.getQueryString()).getBytes(StandardCharsets.UTF_8));
+        HttpServletRequest replayable = request;
+        if (isForm(request)) {
+            // Reading the stream would hide the form fields from getParameter, so fingerprint those
+            new TreeMap<>(request.getParameterMap()).forEach((name, values) -> {
+                fingerprint.update(name.getBytes(StandardCharsets.UTF_8));
+                for (String value : values) {
+                    fingerprint.update((byte) 0);
+                    fingerprint.update(value.getBytes(StandardCharsets.UTF_8));
+                }
+                fingerprint.update((byte) '&');
+            });
+        } else {
+            byte[] body = request.getInputStream().readNBytes(maxBodySize + 1);
+            if (body.length > maxBodySize) {
+                response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                        "Request body too large for " + HEADER);
+                return;
+            }
+            fingerprint.update((byte) '\n');
+            fingerprint.update(body);
+            replayable = new CachedBodyRequest(request, body);
+        }
+        byte[] requestFingerprint = fingerprint.digest();
+        String key = request.getServletPath() + " " + idempotencyKey;
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        while (true) {
+            IdempotencyCache.Claim claim = cache.claim(key, requestFingerprint);
+            if (!claim.entry().matches(requestFingerprint)) {
+                response.sendError(422, HEADER + " was already used for a different request");
+                return;
+            }
+            if (claim.owner()) {
+                execute(key, claim.entry(), replayable, response, filterChain);
+                return;
+            }
+            try {
+                replay(claim.entry().response().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS),
+                        response);
+                return;
+            } catch (ExecutionException e) {
+                // The original request failed without a response; this one takes over
+            } catch (TimeoutException e) {
+                response.sendError(HttpServletResponse.SC_CONFLICT,
+                        "A request with this " + HEADER + " is still being processed");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            }
+        }
+    }
+
+    private void execute(String key, IdempotencyCache.Entry entry, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        // Headers already on the response come from earlier filters (CORS) and are per request
+        Set<String> preset = new HashSet<>(response.getHeaderNames());
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } catch (Throwable e) {
+            cache.fail(key, entry, e);
+            throw e;
+        }
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : wrapper.getHeaderNames()) {
+            if (!preset.contains(name)) {
+                headers.put(name, List.copyOf(wrapper.getHeaders(name)));
+            }
+        }
+        IdempotencyCache.CachedResponse cached = new IdempotencyCache.CachedResponse(wrapper.getStatus(),
+                wrapper.getContentType(), headers, wrapper.getContentAsByteArray());
+        cache.complete(key, entry, cached, cached.status() < 500);
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void replay(IdempotencyCache.CachedResponse cached, HttpServletResponse response) throws IOException {
+        response.setStatus(cached.status());
+        cached.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (cached.contentType() != null) {
+            response.setContentType(cached.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The body was read for the fingerprint; the controller reads it again from here
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is in memory, so it is available at once and then done
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (in.available() > 0) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
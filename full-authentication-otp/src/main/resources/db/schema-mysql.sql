@@ -0,0 +1,92 @@
+-- Schema for the fast-startup profile, which does no DDL at boot (spring.jpa.hibernate.ddl-auto=none).
+-- Generated by Hibernate from the entities with the MySQL dialect; regenerate it when an entity changes.
+
+    create table auth_audit_log (
+        id bigint not null auto_increment,
+        occurred_at datetime(6) not null,
+        event_type varchar(32) not null,
+        ip varchar(45),
+        user_agent varchar(512),
+        email varchar(255),
+        primary key (id)
+    ) engine=InnoDB;
+
+    create table otps (
+        verified bit not null,
+        created_at datetime(6) not null,
+        expiry_time datetime(6) not null,
+        id bigint not null auto_increment,
+        email varchar(255) not null,
+        otp_code varchar(255) not null,
+        primary key (id)
+    ) engine=InnoDB;
+
+    create table refresh_sessions (
+        expiry_date datetime(6) not null,
+        id bigint not null auto_increment,
+        last_used_at datetime(6) not null,
+        user_id bigint not null,
+        version bigint not null,
+        primary key (id)
+    ) engine=InnoDB;
+
+    create table roles (
+        id bigint not null auto_increment,
+        name enum ('ROLE_ADMIN','ROLE_USER','ROLE_VENDOR') not null,
+        primary key (id)
+    ) engine=InnoDB;
+
+    create table user_roles (
+        role_id bigint not null,
+        user_id bigint not null,
+        primary key (role_id, user_id)
+    ) engine=InnoDB;
+
+    create table users (
+        email_verified bit not null,
+        enabled bit not null,
+        created_at datetime(6) not null,
+        id bigint not null auto_increment,
+        last_login_at datetime(6),
+        last_seen_at datetime(6),
+        updated_at datetime(6) not null,
+        email varchar(255) not null,
+        email_canonical varchar(255),
+        first_name varchar(255) not null,
+        last_name varchar(255) not null,
+        password varchar(255) not null,
+        primary key (id)
+    ) engine=InnoDB;
+
+    create index ix_users_first_name
+       on users (first_name);
+
+    create index ix_users_last_name
+       on users (last_name);
+
+    create index ix_refresh_sessions_user_last_used
+       on refresh_sessions (user_id, last_used_at);
+
+    alter table roles
+       add constraint UKofx66keruapi6vyqpv6f2or37 unique (name);
+
+    alter table users
+       add constraint ux_users_email_canonical unique (email_canonical);
+
+    alter table users
+       add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+    alter table refresh_sessions
+       add constraint FK9ndfh1op1iy3xuqyi6gxkseg0
+       foreign key (user_id)
+       references users (id);
+
+    alter table user_roles
+       add constraint FKh8ciramu9cc9q3qcqiv4ue8a6
+       foreign key (role_id)
+       references roles (id);
+
+    alter table user_roles
+       add constraint FKhfh9dx7w3ubf1co1vdev94g3f
+       foreign key (user_id)
+       references users (id);
@@ -0,0 +1,131 @@
+package org.auth.fullauthenticationotp.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private AuditLog auditLog(AuditSink sink, int bufferSize) {
+        AuditLog auditLog = new AuditLog(sink, registry);
+        ReflectionTestUtils.setField(auditLog, "enabled", true);
+        ReflectionTestUtils.setField(auditLog, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(auditLog, "batchSize", 100);
+        ReflectionTestUtils.setField(auditLog, "flushIntervalMillis", 50L);
+        ReflectionTestUtils.setField(auditLog, "offerTimeoutMillis", 5L);
+        ReflectionTestUtils.setField(auditLog, "drainTimeoutMillis", 10000L);
+        return auditLog;
+    }
+
+    private double count(String outcome) {
+        return registry.get("auth.audit.events").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void record_ShouldCaptureRequestDetails_AndStopShouldDrainEverything() {
+        List<List<AuditEvent>> batches = new CopyOnWriteArrayList<>();
+        AuditLog auditLog = auditLog(batch -> batches.add(List.copyOf(batch)), 4096);
+        auditLog.start();
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("User-Agent", "curl/8.5");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        auditLog.record(AuditEvent.Type.LOGIN_SUCCESS, "Alice@Example.com");
+        RequestContextHolder.resetRequestAttributes();
+        for (int i = 0; i < 999; i++) {
+            auditLog.record(AuditEvent.Type.OTP_ISSUED, "user" + i + "@example.com");
+        }
+        auditLog.stop();
+
+        List<AuditEvent> events = batches.stream().flatMap(List::stream).toList();
+        assertEquals(1000, events.size());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 100));
+        AuditEvent first = events.get(0);
+        assertEquals(AuditEvent.Type.LOGIN_SUCCESS, first.type());
+        assertEquals("alice@example.com", first.email());
+        assertEquals("203.0.113.7", first.ip());
+        assertEquals("curl/8.5", first.userAgent());
+        assertNull(events.get(1).ip());
+        assertEquals(1000, count("written"));
+        assertFalse(auditLog.isRunning());
+    }
+
+    @Test
+    void record_ShouldDropAfterOfferTimeout_WhenTheSinkCannotKeepUp() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<AuditEvent> written = new CopyOnWriteArrayList<>();
+        AuditLog auditLog = auditLog(batch -> {
+            release.await();
+            written.addAll(batch);
+        }, 8);
+        auditLog.start();
+
+        for (int i = 0; i < 100; i++) {
+            auditLog.record(AuditEvent.Type.REFRESH_FAILURE, null);
+        }
+        release.countDown();
+        auditLog.stop();
+
+        assertTrue(count("dropped") > 0);
+        assertEquals(100, written.size() + count("dropped"));
+    }
+
+    @Test
+    void record_ShouldDoNothing_WhenDisabled() {
+        List<AuditEvent> written = new ArrayList<>();
+        AuditLog auditLog = auditLog(written::addAll, 8);
+        ReflectionTestUtils.setField(auditLog, "enabled", false);
+        auditLog.start();
+
+        auditLog.record(AuditEvent.Type.LOGIN_FAILURE, "bob@example.com");
+        auditLog.stop();
+
+        assertTrue(written.isEmpty());
+        assertFalse(auditLog.isRunning());
+    }
+
+    @Test
+    void segmentFileSink_ShouldWriteNdjsonLines_AndRollSegments(@TempDir Path directory) throws Exception {
+        SegmentFileAuditSink sink = new SegmentFileAuditSink(directory, 200, JsonMapper.builder().build());
+        for (int i = 0; i < 3; i++) {
+            sink.write(List.of(new AuditEvent(i, AuditEvent.Type.PASSWORD_RESET, "user@example.com", "10.0.0.1", "test")));
+        }
+        sink.close();
+
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> segments = Files.list(directory).sorted()) {
+            List<Path> files = segments.toList();
+            assertTrue(files.size() > 1);
+            for (Path file : files) {
+                lines.addAll(Files.readAllLines(file));
+            }
+        }
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"type\":\"PASSWORD_RESET\""));
+        assertTrue(lines.get(2).contains("\"occurredAt\":2"));
+    }
+}
@@ -0,0 +1,77 @@
+package org.auth.fullauthenticationotp.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTest {
+
+    private static AuditEvent event(long n) {
+        return new AuditEvent(n, AuditEvent.Type.LOGIN_SUCCESS, "user" + n + "@example.com", null, null);
+    }
+
+    @Test
+    void offer_ShouldRejectWhenFull_AndAcceptAgainOnceDrained() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(event(i)));
+        }
+        assertFalse(buffer.offer(event(4)));
+
+        List<AuditEvent> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertTrue(buffer.offer(event(4)));
+        assertEquals(2, buffer.drainTo(drained, 10));
+
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), drained.stream().map(AuditEvent::occurredAt).toList());
+        assertEquals(0, buffer.drainTo(drained, 10));
+    }
+
+    @Test
+    void drainTo_ShouldReceiveEveryEventOnce_WithConcurrentProducers() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long base = (long) p * perProducer;
+                futures.add(executor.submit(() -> {
+                    for (long i = base; i < base + perProducer; i++) {
+                        while (!buffer.offer(event(i))) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+            Set<Long> seen = new HashSet<>();
+            List<AuditEvent> batch = new ArrayList<>();
+            while (seen.size() < producers * perProducer) {
+                if (buffer.drainTo(batch, 16) == 0) {
+                    Thread.yield();
+                }
+                for (AuditEvent event : batch) {
+                    assertTrue(seen.add(event.occurredAt()), "duplicate " + event.occurredAt());
+                }
+                batch.clear();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertEquals(0, buffer.drainTo(new ArrayList<>(), 1));
+    }
+
+    @Test
+    void constructor_ShouldRequirePowerOfTwoCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer(6));
+    }
+}
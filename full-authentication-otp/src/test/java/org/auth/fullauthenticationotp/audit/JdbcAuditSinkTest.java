@@ -0,0 +1,41 @@
+package org.auth.fullauthenticationotp.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JdbcAuditSinkTest {
+
+    @Autowired private AuditSink auditSink;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @MockitoBean private JavaMailSender mailSender;
+
+    @Test
+    void write_ShouldInsertTheWholeBatch() throws Exception {
+        assertInstanceOf(JdbcAuditSink.class, auditSink);
+        long now = System.currentTimeMillis();
+
+        auditSink.write(List.of(
+                new AuditEvent(now, AuditEvent.Type.LOGIN_FAILURE, "batch@audit.test", "198.51.100.4", "Mozilla/5.0"),
+                new AuditEvent(now, AuditEvent.Type.REFRESH_FAILURE, null, "198.51.100.4", null)));
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select event_type, email, ip, user_agent from auth_audit_log where ip = '198.51.100.4' order by id");
+        assertEquals(2, rows.size());
+        assertEquals("LOGIN_FAILURE", rows.get(0).get("EVENT_TYPE"));
+        assertEquals("batch@audit.test", rows.get(0).get("EMAIL"));
+        assertEquals("Mozilla/5.0", rows.get(0).get("USER_AGENT"));
+        assertNull(rows.get(1).get("EMAIL"));
+    }
+}
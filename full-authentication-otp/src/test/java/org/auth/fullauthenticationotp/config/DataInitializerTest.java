@@ -0,0 +1,55 @@
+package org.auth.fullauthenticationotp.config;
+
+import org.auth.fullauthenticationotp.datasource.ShardRouter;
+import org.auth.fullauthenticationotp.model.Role;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataInitializerTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(false, List.of());
+
+    @InjectMocks
+    private DataInitializer dataInitializer;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_ShouldSaveOnlyMissingRoles_InOneBatch() {
+        when(roleRepository.findAllNames()).thenReturn(List.of(RoleType.ROLE_USER));
+
+        dataInitializer.run();
+
+        ArgumentCaptor<List<Role>> saved = ArgumentCaptor.forClass(List.class);
+        verify(roleRepository).saveAll(saved.capture());
+        assertEquals(List.of(RoleType.ROLE_ADMIN, RoleType.ROLE_VENDOR),
+                saved.getValue().stream().map(Role::getName).sorted().toList());
+        verify(roleRepository, never()).findByName(any());
+    }
+
+    @Test
+    void run_ShouldWriteNothing_WhenAllRolesExist() {
+        when(roleRepository.findAllNames()).thenReturn(List.of(RoleType.values()));
+
+        dataInitializer.run();
+
+        verify(roleRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,62 @@
+package org.auth.fullauthenticationotp.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmailCanonicalBackfillTest {
+
+    @Autowired private EmailCanonicalBackfill backfill;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @MockitoBean private JavaMailSender mailSender;
+
+    // Rows as they were before email_canonical existed
+    private long insertLegacyUser(String email) {
+        jdbcTemplate.update("insert into users (email, password, first_name, last_name, email_verified, enabled,"
+                + " created_at, updated_at) values (?, 'x', 'Legacy', 'User', true, true, now(), now())", email);
+        return jdbcTemplate.queryForObject("select id from users where email = ?", Long.class, email);
+    }
+
+    private String canonical(long id) {
+        return jdbcTemplate.queryForObject("select email_canonical from users where id = ?", String.class, id);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from users where email like '%@backfill.test'");
+    }
+
+    @Test
+    void run_ShouldMigrateOtherRows_AndFailWithTheConflictingIds() {
+        long first = insertLegacyUser("Case@Backfill.test");
+        long other = insertLegacyUser(" Other@Backfill.test");
+        long duplicate = insertLegacyUser("case@backfill.test");
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, backfill::run);
+
+        assertTrue(ex.getMessage().contains("user " + duplicate + " (shard 0) conflicts with user " + first),
+                ex.getMessage());
+        assertTrue(ex.getMessage().startsWith("1 users"), ex.getMessage());
+        assertEquals("case@backfill.test", canonical(first));
+        assertEquals("other@backfill.test", canonical(other));
+        assertNull(canonical(duplicate));
+    }
+
+    @Test
+    void run_ShouldSucceed_WithoutConflicts() {
+        long id = insertLegacyUser("Single@Backfill.test");
+
+        backfill.run();
+
+        assertEquals("single@backfill.test", canonical(id));
+    }
+}
@@ -0,0 +1,71 @@
+package org.auth.fullauthenticationotp.config;
+
+import org.auth.fullauthenticationotp.repository.RefreshTokenRepository;
+import org.auth.fullauthenticationotp.repository.RoleRepository;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.auth.fullauthenticationotp.security.RefreshTokenCodec;
+import org.auth.fullauthenticationotp.security.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StartupWarmupTest {
+
+    @Mock private JwtTokenProvider tokenProvider;
+    @Mock private TokenRevocationService tokenRevocationService;
+    @Mock private RefreshTokenCodec refreshTokenCodec;
+    @Mock private PasswordEncoder passwordEncoder;
+    @Mock private UserRepository userRepository;
+    @Mock private RoleRepository roleRepository;
+    @Mock private RefreshTokenRepository refreshTokenRepository;
+
+    @InjectMocks
+    private StartupWarmup startupWarmup;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(startupWarmup, "enabled", true);
+        ReflectionTestUtils.setField(startupWarmup, "iterations", 50);
+        ReflectionTestUtils.setField(startupWarmup, "passwordIterations", 5);
+        ReflectionTestUtils.setField(startupWarmup, "threads", 3);
+        ReflectionTestUtils.setField(startupWarmup, "timeBudget", 30000L);
+    }
+
+    @Test
+    void run_ShouldExerciseEachPath_ForTheConfiguredIterations() {
+        startupWarmup.run();
+
+        verify(tokenProvider, times(50)).generateToken(anyString(), anyList());
+        verify(userRepository, times(50)).findByEmailCanonical(endsWith("@warmup.invalid"));
+        verify(passwordEncoder, times(5)).matches(anyString(), any());
+    }
+
+    @Test
+    void run_ShouldStopAtTheTimeBudget() {
+        ReflectionTestUtils.setField(startupWarmup, "timeBudget", 0L);
+
+        startupWarmup.run();
+
+        verifyNoInteractions(tokenProvider, userRepository);
+    }
+
+    @Test
+    void run_ShouldKeepGoing_WhenAnIterationFails() {
+        when(tokenProvider.generateToken(anyString(), anyList())).thenThrow(new IllegalStateException("broken"));
+
+        startupWarmup.run();
+
+        verify(tokenProvider, times(50)).generateToken(anyString(), anyList());
+        verifyNoInteractions(userRepository);
+    }
+}
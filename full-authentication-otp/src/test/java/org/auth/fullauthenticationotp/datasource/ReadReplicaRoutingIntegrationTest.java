@@ -0,0 +1,123 @@
+package org.auth.fullauthenticationotp.datasource;
+
+import org.auth.fullauthenticationotp.dto.LoginRequest;
+import org.auth.fullauthenticationotp.dto.OTPVerificationRequest;
+import org.auth.fullauthenticationotp.dto.SignupRequest;
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.auth.fullauthenticationotp.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two separate in-memory H2 databases stand in for the primary and its replica. Replication is
+// simulated by copying the primary wholesale; anything written after that is replica lag.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "datasource.replica.enabled=true",
+        "datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "datasource.replica.username=sa",
+        "datasource.replica.password=",
+        "datasource.replica.read-your-writes-window=60000",
+        "security.bcrypt-strength=4"})
+@ActiveProfiles("test")
+class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired private AuthService authService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserDetailsService userDetailsService;
+    @Autowired @Qualifier("primaryDataSource") private DataSource primaryDataSource;
+    @Autowired @Qualifier("replicaDataSource") private DataSource replicaDataSource;
+    @MockitoBean private JavaMailSender mailSender;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        primary.update("delete from user_roles");
+        primary.update("delete from refresh_sessions");
+        primary.update("delete from otps");
+        primary.update("delete from users");
+        replicate();
+    }
+
+    @Test
+    void writesShouldGoToPrimary_AndReadOnlyQueriesToReplica() {
+        User user = User.builder()
+                .email("routing@example.com")
+                .password("unused")
+                .firstName("Routing")
+                .lastName("Test")
+                .build();
+        userRepository.save(user);
+
+        assertEquals(1, count(primary, "users"));
+        assertEquals(0, count(replica, "users"));
+        // Repository reads run in read-only transactions and see the lagging replica
+        assertTrue(userRepository.findByEmailCanonical("routing@example.com").isEmpty());
+
+        replicate();
+
+        assertTrue(userRepository.findByEmailCanonical("routing@example.com").isPresent());
+    }
+
+    @Test
+    void verifyThenLogin_ShouldReadOwnWrites_WhileReplicaLags() {
+        String email = "Lagging@Example.com";
+        authService.signup(new SignupRequest(email, "Routing@1234", "Routing", "Test"));
+        String otp = primary.queryForObject("select otp_code from otps where email = ?", String.class,
+                "lagging@example.com");
+        replicate();
+
+        authService.verifyOTP(new OTPVerificationRequest(email, otp));
+
+        // The replica still has the unverified user
+        assertFalse(replica.queryForObject("select email_verified from users where email_canonical = ?",
+                Boolean.class, "lagging@example.com"));
+        assertFalse(userRepository.findByEmailCanonical("lagging@example.com").orElseThrow().isEmailVerified());
+
+        // The JWT filter's user lookup is read-only but stays on the primary for this user
+        UserDetails details = userDetailsService.loadUserByUsername(email);
+        assertTrue(details.isEnabled());
+        assertTrue(details.isAccountNonLocked());
+        assertNotNull(authService.login(new LoginRequest(email, "Routing@1234")).getAccessToken());
+    }
+
+    @Test
+    void readsForOtherUsers_ShouldStayOnReplica() {
+        authService.signup(new SignupRequest("writer@example.com", "Routing@1234", "Writer", "Test"));
+        replicate();
+        primary.update("update users set first_name = 'Changed' where email_canonical = ?", "writer@example.com");
+        authService.signup(new SignupRequest("other@example.com", "Routing@1234", "Other", "Test"));
+
+        // Only other@example.com was written through the guard; writer@ still reads the replica copy
+        assertEquals("Writer", userRepository.findByEmailCanonical("writer@example.com").orElseThrow().getFirstName());
+    }
+
+    // Replaces the replica's contents with a copy of the primary's, schema included
+    private void replicate() {
+        List<String> script = primary.queryForList("script", String.class);
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+    }
+
+    private static int count(JdbcTemplate jdbc, String table) {
+        return jdbc.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
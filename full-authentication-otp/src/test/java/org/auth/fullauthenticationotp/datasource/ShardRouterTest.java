@@ -0,0 +1,54 @@
+package org.auth.fullauthenticationotp.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    private final ShardRouter router = new ShardRouter(true, List.of("a", "b", "c", "d"));
+
+    @Test
+    void shardForEmail_ShouldSpreadUsers_AndOnlyMoveThemToANewShard() {
+        ShardRouter grown = new ShardRouter(true, List.of("a", "b", "c", "d", "e"));
+        int[] counts = new int[4];
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String email = "user" + i + "@example.com";
+            int shard = router.shardForEmail(email);
+            counts[shard]++;
+            int after = grown.shardForEmail(email);
+            if (after != shard) {
+                assertEquals(4, after);
+                moved++;
+            }
+        }
+        for (int count : counts) {
+            assertTrue(count > 2_200 && count < 2_800, () -> "Uneven spread " + Arrays.toString(counts));
+        }
+        // About a fifth of the users move when a fifth shard is added
+        int movedUsers = moved;
+        assertTrue(movedUsers > 1_700 && movedUsers < 2_300, () -> movedUsers + " users moved");
+    }
+
+    @Test
+    void shardForId_ShouldReadTheShardFromTheIdRange() {
+        assertEquals(0, router.shardForId(1));
+        assertEquals(3, router.shardForId(ShardRouter.firstId(3)));
+        assertEquals(2, router.shardForId((3L << ShardRouter.LOCAL_ID_BITS) - 1));
+        // Ids no shard allocates are sent to shard 0, where they do not exist either
+        assertEquals(0, router.shardForId(-5));
+        assertEquals(0, router.shardForId(ShardRouter.firstId(9)));
+    }
+
+    @Test
+    void shardForEmail_ShouldAlwaysBeZero_WhenShardingIsDisabled() {
+        ShardRouter disabled = new ShardRouter(false, List.of());
+
+        assertEquals(1, disabled.shardCount());
+        assertEquals(0, disabled.shardForEmail("anyone@example.com"));
+    }
+}
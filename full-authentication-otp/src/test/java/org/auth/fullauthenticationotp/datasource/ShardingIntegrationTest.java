@@ -0,0 +1,208 @@
+package org.auth.fullauthenticationotp.datasource;
+
+import org.auth.fullauthenticationotp.dto.AuthResponse;
+import org.auth.fullauthenticationotp.dto.LoginRequest;
+import org.auth.fullauthenticationotp.dto.OTPVerificationRequest;
+import org.auth.fullauthenticationotp.dto.SignupRequest;
+import org.auth.fullauthenticationotp.dto.TokenIntrospectionResult;
+import org.auth.fullauthenticationotp.dto.UserDTO;
+import org.auth.fullauthenticationotp.dto.UserImportProgress;
+import org.auth.fullauthenticationotp.dto.UserPage;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.auth.fullauthenticationotp.service.AuthService;
+import org.auth.fullauthenticationotp.service.RefreshSessionService;
+import org.auth.fullauthenticationotp.service.TokenIntrospectionService;
+import org.auth.fullauthenticationotp.service.UserImportService;
+import org.auth.fullauthenticationotp.service.UserSearchService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Three in-memory H2 databases as shards, each given the deployment schema before the context starts
+@SpringBootTest(properties = {
+        "datasource.sharding.enabled=true",
+        "datasource.sharding.urls=" + ShardingIntegrationTest.SHARD_0 + "," + ShardingIntegrationTest.SHARD_1 + ","
+                + ShardingIntegrationTest.SHARD_2,
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.open-in-view=false",
+        "security.bcrypt-strength=4"})
+@ActiveProfiles("test")
+class ShardingIntegrationTest {
+
+    static final String SHARD_0 = "jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String SHARD_1 = "jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String SHARD_2 = "jdbc:h2:mem:shard2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final List<String> SHARD_URLS = List.of(SHARD_0, SHARD_1, SHARD_2);
+    private static final int SHARDS = SHARD_URLS.size();
+    private static final String PASSWORD = "Sharding@1234";
+
+    @Autowired private AuthService authService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RefreshSessionService refreshSessionService;
+    @Autowired private TokenIntrospectionService tokenIntrospectionService;
+    @Autowired private UserImportService userImportService;
+    @Autowired private UserSearchService userSearchService;
+    @Autowired private ShardRouter shardRouter;
+    @Autowired private ShardDataSources shardDataSources;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @MockitoBean private JavaMailSender mailSender;
+
+    @BeforeAll
+    static void createSchemas() throws SQLException {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            try (Connection connection = DriverManager.getConnection(SHARD_URLS.get(shard), "sa", "");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("drop all objects");
+                statement.execute("runscript from 'classpath:db/schema-mysql.sql'");
+            }
+        }
+    }
+
+    @Test
+    void signup_ShouldStoreUserAndOtpOnTheShardItsEmailHashesTo() {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 9; i++) {
+            String email = "spread" + i + "@example.com";
+            authService.signup(new SignupRequest(email, PASSWORD, "Spread", "Test"));
+            int expected = shardRouter.shardForEmail(email);
+            used.add(expected);
+
+            for (int shard = 0; shard < SHARDS; shard++) {
+                JdbcTemplate jdbc = jdbc(shard);
+                List<Long> ids = jdbc.queryForList("select id from users where email_canonical = ?", Long.class, email);
+                int otps = jdbc.queryForObject("select count(*) from otps where email = ?", Integer.class, email);
+                assertEquals(shard == expected ? 1 : 0, ids.size(), email + " on shard " + shard);
+                assertEquals(shard == expected ? 1 : 0, otps);
+                // The id is allocated from the shard's own range
+                ids.forEach(id -> assertEquals(expected, shardRouter.shardForId(id)));
+            }
+        }
+        assertEquals(Set.of(0, 1, 2), used);
+    }
+
+    @Test
+    @DirtiesContext
+    void refreshToken_ShouldResolveItsShardFromTheTokenAlone() {
+        String email = emailOnShard(2, "refresh");
+        AuthResponse login = signupVerifyLogin(email);
+        sessionCache().clear();
+
+        // With every other shard unreachable, the refresh must still find and rotate its session
+        shardDataSources.shards().get(0).close();
+        shardDataSources.shards().get(1).close();
+
+        AuthResponse refreshed = authService.refreshToken(login.getRefreshToken());
+
+        assertEquals(email, refreshed.getUser().getEmail());
+        assertEquals(1, jdbc(2).queryForObject("select s.version from refresh_sessions s join users u on u.id = s.user_id"
+                + " where u.email_canonical = ?", Long.class, email));
+    }
+
+    @Test
+    void introspect_ShouldLoadSessionsFromEachShardSeparately() {
+        AuthResponse first = signupVerifyLogin(emailOnShard(0, "introspect"));
+        AuthResponse second = signupVerifyLogin(emailOnShard(1, "introspect"));
+        sessionCache().clear();
+
+        List<TokenIntrospectionResult> results = tokenIntrospectionService.introspect(
+                List.of(first.getRefreshToken(), second.getRefreshToken()));
+
+        assertTrue(results.get(0).isActive());
+        assertTrue(results.get(1).isActive());
+    }
+
+    @Test
+    void importAndSearch_ShouldPlaceUsersByEmailAndPageAcrossShardsInIdOrder() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 9; i++) {
+            body.append("{\"email\":\"keyset").append(i).append("@example.com\",\"password\":\"").append(PASSWORD)
+                    .append("\",\"firstName\":\"Keyset\",\"lastName\":\"Test\"}\n");
+        }
+        UserImportProgress imported = userImportService.importUsers(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)), "application/x-ndjson", p -> {
+                });
+        assertEquals(9, imported.getImported());
+
+        List<UserDTO> users = new ArrayList<>();
+        UserSearchService.Filter filter = new UserSearchService.Filter("keyset", null, null);
+        UserPage page = userSearchService.search(filter, 0, 2);
+        users.addAll(page.getUsers());
+        while (page.getNextAfter() != null) {
+            page = userSearchService.search(filter, page.getNextAfter(), 2);
+            users.addAll(page.getUsers());
+        }
+
+        List<Long> ids = users.stream().map(UserDTO::getId).toList();
+        assertEquals(9, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+        users.forEach(user -> {
+            assertEquals(shardRouter.shardForEmail(user.getEmail()), shardRouter.shardForId(user.getId()));
+            assertEquals(Set.of("ROLE_USER"), user.getRoles());
+        });
+        assertEquals(Set.of(0, 1, 2), users.stream().map(user -> shardRouter.shardForId(user.getId())).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void transaction_ShouldRejectUsersFromTwoShards() {
+        String onShard0 = emailOnShard(0, "cross");
+        String onShard1 = emailOnShard(1, "cross");
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    userRepository.findByEmailCanonical(onShard0);
+                    userRepository.findByEmailCanonical(onShard1);
+                }));
+        assertEquals("Transaction is on shard 0 and cannot use shard 1", ex.getMessage());
+    }
+
+    private AuthResponse signupVerifyLogin(String email) {
+        authService.signup(new SignupRequest(email, PASSWORD, "Shard", "Test"));
+        String otp = jdbc(shardRouter.shardForEmail(email))
+                .queryForObject("select otp_code from otps where email = ?", String.class, email);
+        authService.verifyOTP(new OTPVerificationRequest(email, otp));
+        return authService.login(new LoginRequest(email, PASSWORD));
+    }
+
+    private String emailOnShard(int shard, String prefix) {
+        for (int i = 0; ; i++) {
+            String email = prefix + i + "@example.com";
+            if (shardRouter.shardForEmail(email) == shard) {
+                return email;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, ?> sessionCache() {
+        RefreshSessionService target = AopTestUtils.getTargetObject(refreshSessionService);
+        return (Map<Long, ?>) ReflectionTestUtils.getField(target, "sessions");
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(shardDataSources.shards().get(shard));
+    }
+}
@@ -0,0 +1,56 @@
+package org.auth.fullauthenticationotp.mail;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailTemplatesTest {
+
+    private final MailTemplates mailTemplates = new MailTemplates();
+
+    @Test
+    void render_ShouldFillTextAndHtml_InTheDefaultVariant() {
+        RenderedMail mail = mailTemplates.render(MailTemplate.OTP_VERIFICATION, Locale.ENGLISH, "123456", "5");
+
+        assertEquals("Email Verification - OTP", mail.subject());
+        assertTrue(mail.text().startsWith("Your OTP for email verification is: 123456\n"));
+        assertTrue(mail.text().contains("expire in 5 minutes"));
+        assertTrue(mail.html().contains(">123456</p>"));
+        assertFalse(mail.html().contains("{{"));
+    }
+
+    @Test
+    void render_ShouldFallBackFromCountryToLanguageToDefault() {
+        RenderedMail canadian = mailTemplates.render(MailTemplate.PASSWORD_RESET, Locale.CANADA_FRENCH, "654321", "10");
+        RenderedMail german = mailTemplates.render(MailTemplate.PASSWORD_RESET, Locale.GERMANY, "654321", "10");
+        RenderedMail none = mailTemplates.render(MailTemplate.PASSWORD_RESET, null, "654321", "10");
+
+        assertTrue(canadian.text().startsWith("Votre code de réinitialisation du mot de passe est : 654321"));
+        assertTrue(canadian.html().contains("lang=\"fr\""));
+        assertEquals("Password Reset - OTP", german.subject());
+        assertEquals(german, none);
+    }
+
+    @Test
+    void render_ShouldEscapeValuesInHtmlOnly() {
+        RenderedMail mail = mailTemplates.render(MailTemplate.OTP_VERIFICATION, Locale.ENGLISH, "<b>&", "5");
+
+        assertTrue(mail.text().contains("is: <b>&"));
+        assertTrue(mail.html().contains("&lt;b&gt;&amp;"));
+        assertFalse(mail.html().contains("<b>&"));
+    }
+
+    @Test
+    void compile_ShouldRejectUnknownParametersAndUnclosedPlaceholders() {
+        List<String> parameters = List.of("code");
+        assertThrows(IllegalStateException.class,
+                () -> CompiledTemplate.compile("Code {{cdoe}}", parameters, false, "typo.txt"));
+        assertThrows(IllegalStateException.class,
+                () -> CompiledTemplate.compile("Code {{code", parameters, false, "unclosed.txt"));
+        assertThrows(IllegalArgumentException.class,
+                () -> mailTemplates.render(MailTemplate.OTP_VERIFICATION, Locale.ENGLISH, "123456"));
+    }
+}
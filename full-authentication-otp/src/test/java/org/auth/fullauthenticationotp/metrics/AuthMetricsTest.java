@@ -0,0 +1,62 @@
+package org.auth.fullauthenticationotp.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.auth.fullauthenticationotp.security.TimedPasswordEncoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private AuthMetrics authMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        authMetrics = new AuthMetrics(registry);
+    }
+
+    @Test
+    void otpOutcomes_ShouldBeCountedSeparately() {
+        authMetrics.otpIssued();
+        authMetrics.otpIssued();
+        authMetrics.otpVerified();
+        authMetrics.otpInvalid();
+
+        assertEquals(2, registry.get("auth.otp").tag("outcome", "issued").counter().count());
+        assertEquals(1, registry.get("auth.otp").tag("outcome", "verified").counter().count());
+        assertEquals(1, registry.get("auth.otp").tag("outcome", "invalid").counter().count());
+        assertEquals(0, registry.get("auth.otp").tag("outcome", "expired").counter().count());
+    }
+
+    @Test
+    void jwtVerification_ShouldBeTimedByOutcome() {
+        authMetrics.recordJwtVerification(1_000, true, false);
+        authMetrics.recordJwtVerification(1_000, true, true);
+        authMetrics.recordJwtVerification(1_000, false, false);
+        authMetrics.recordEmailSend(AuthMetrics.TYPE_PASSWORD_RESET, 5_000, false);
+
+        assertEquals(1, registry.get("auth.jwt.verification").tag("outcome", "valid").timer().count());
+        assertEquals(1, registry.get("auth.jwt.verification").tag("outcome", "revoked").timer().count());
+        assertEquals(1, registry.get("auth.jwt.verification").tag("outcome", "invalid").timer().count());
+        assertEquals(1, registry.get("auth.email.send")
+                .tags("type", AuthMetrics.TYPE_PASSWORD_RESET, "outcome", "failed").timer().count());
+    }
+
+    @Test
+    void timedPasswordEncoder_ShouldRecordMatchesAndMismatches() {
+        PasswordEncoder encoder = new TimedPasswordEncoder(new BCryptPasswordEncoder(4), authMetrics);
+
+        String hash = encoder.encode("Password123!");
+        assertTrue(encoder.matches("Password123!", hash));
+        assertFalse(encoder.matches("wrong", hash));
+
+        assertEquals(1, registry.get("auth.password.encode").timer().count());
+        assertEquals(1, registry.get("auth.password.check").tag("outcome", "match").timer().count());
+        assertEquals(1, registry.get("auth.password.check").tag("outcome", "mismatch").timer().count());
+    }
+}
@@ -0,0 +1,36 @@
+package org.auth.fullauthenticationotp.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.end();
+    }
+
+    @Test
+    void headerValue_ShouldListRecordedStagesOnly() {
+        ServerTiming timing = ServerTiming.begin();
+        ServerTiming.record(ServerTiming.Stage.PASSWORD, 85_304_000);
+        ServerTiming.record(ServerTiming.Stage.DB, 1_000_000);
+        ServerTiming.record(ServerTiming.Stage.DB, 2_050_000);
+
+        assertEquals("pwd;dur=85.30;desc=\"Password hash/check\", "
+                        + "db;dur=3.05;desc=\"SQL statements (2)\", total;dur=90.00",
+                timing.headerValue(90_000_000));
+        assertEquals("total_ms=90.00 pwd_ms=85.30 pwd_count=1 db_ms=3.05 db_count=2",
+                timing.logFields(90_000_000));
+    }
+
+    @Test
+    void record_ShouldBeIgnored_WhenNoRequestIsBound() {
+        ServerTiming.record(ServerTiming.Stage.JWT, 1_000_000);
+
+        ServerTiming timing = ServerTiming.begin();
+        assertEquals("total;dur=0.50", timing.headerValue(500_000));
+    }
+}
@@ -0,0 +1,58 @@
+package org.auth.fullauthenticationotp.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    // One-minute window of one-second buckets
+    private final SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 60, now::get);
+
+    @Test
+    void sum_ShouldDropEventsOnceTheyLeaveTheWindow() {
+        counter.increment();
+        now.addAndGet(30_000);
+        counter.increment();
+        counter.increment();
+        assertEquals(3, counter.sum());
+
+        now.addAndGet(30_000);
+        assertEquals(2, counter.sum());
+
+        now.addAndGet(30_000);
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void increment_ShouldReuseRingSlots_AfterAFullRevolution() {
+        for (int second = 0; second < 150; second++) {
+            counter.increment();
+            now.addAndGet(1_000);
+        }
+
+        // The last 60 one-second buckets, the current (empty) one included
+        assertEquals(59, counter.sum());
+    }
+
+    @Test
+    void increment_ShouldNotLoseCounts_UnderConcurrentWriters() {
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        counter.increment();
+                    }
+                });
+            }
+        }
+
+        assertEquals(80_000, counter.sum());
+    }
+}
@@ -0,0 +1,99 @@
+package org.auth.fullauthenticationotp.perf;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import lombok.extern.slf4j.Slf4j;
+import org.auth.fullauthenticationotp.dto.LoginRequest;
+import org.auth.fullauthenticationotp.dto.SignupRequest;
+import org.auth.fullauthenticationotp.metrics.AuthMetrics;
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.auth.fullauthenticationotp.security.JwtAuthenticationFilter;
+import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.auth.fullauthenticationotp.security.TokenRevocationService;
+import org.auth.fullauthenticationotp.service.AuthService;
+import org.auth.fullauthenticationotp.service.UserActivityTracker;
+import org.auth.fullauthenticationotp.util.EmailUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Fails when a hot path allocates more per operation than the budget checked in at
+// src/test/resources/allocation-budgets.properties. Raise a budget only for an intended change.
+@Slf4j
+@SpringBootTest(properties = "security.bcrypt-strength=4")
+@ActiveProfiles("test")
+class AllocationBudgetTest {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Autowired private AuthService authService;
+    @Autowired private JwtTokenProvider tokenProvider;
+    @Autowired private TokenRevocationService tokenRevocationService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserActivityTracker userActivityTracker;
+    @MockitoBean private JavaMailSender mailSender;
+
+    @Test
+    void jwtAuthenticationFilter_ShouldStayWithinBudget() throws IOException {
+        // User loading is stubbed so the number covers the filter itself, not Hibernate
+        UserDetails user = new org.springframework.security.core.userdetails.User(
+                "budget@example.com", "unused", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenProvider, username -> user,
+                tokenRevocationService, new AuthMetrics(new SimpleMeterRegistry()), userActivityTracker);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/profile");
+        request.addHeader("Authorization", "Bearer " + tokenProvider.generateToken(user.getUsername(), List.of("ROLE_USER")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        long bytes = JfrAllocationMeter.bytesPerOperation(20_000, 50_000, () -> {
+            try {
+                filter.doFilter(request, response, NO_OP_CHAIN);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+            request.removeAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE);
+            SecurityContextHolder.clearContext();
+        });
+
+        assertWithinBudget("jwt-authentication-filter", bytes);
+    }
+
+    @Test
+    void authServiceLogin_ShouldStayWithinBudget() throws IOException {
+        String email = "budget.login@example.com";
+        authService.signup(new SignupRequest(email, "Budget@1234", "Budget", "Login"));
+        User user = userRepository.findByEmailCanonical(EmailUtils.canonicalize(email)).orElseThrow();
+        user.setEmailVerified(true);
+        user.setEnabled(true);
+        userRepository.save(user);
+        LoginRequest login = new LoginRequest(email, "Budget@1234");
+
+        // Full path: authentication manager, BCrypt at strength 4, user query, signing, refresh session insert
+        long bytes = JfrAllocationMeter.bytesPerOperation(500, 2_000,
+                () -> assertNotNull(authService.login(login).getAccessToken()));
+
+        assertWithinBudget("auth-service-login", bytes);
+    }
+
+    private static void assertWithinBudget(String name, long bytesPerOperation) {
+        long budget = JfrAllocationMeter.budget(name);
+        log.info("Allocation {}: {} B/op (budget {} B/op)", name, bytesPerOperation, budget);
+        assertTrue(bytesPerOperation <= budget, () -> name + " allocated " + bytesPerOperation
+                + " B/op, over its budget of " + budget + " B/op");
+    }
+}
@@ -0,0 +1,73 @@
+package org.auth.fullauthenticationotp.perf;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+// Measures bytes allocated per operation on the calling thread from JFR allocation events:
+// every new TLAB handed to the thread plus every allocation made outside one. That over-counts
+// by at most the last partly used TLAB, which vanishes over enough iterations.
+final class JfrAllocationMeter {
+
+    private static final String NEW_TLAB = "jdk.ObjectAllocationInNewTLAB";
+    private static final String OUTSIDE_TLAB = "jdk.ObjectAllocationOutsideTLAB";
+
+    private JfrAllocationMeter() {
+    }
+
+    static long bytesPerOperation(int warmupIterations, int iterations, Runnable operation) throws IOException {
+        // Let the JIT settle first; escape analysis removes many allocations only in C2 code
+        for (int i = 0; i < warmupIterations; i++) {
+            operation.run();
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        Path file = Files.createTempFile("allocation-budget", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(NEW_TLAB);
+            recording.enable(OUTSIDE_TLAB);
+            recording.start();
+            for (int i = 0; i < iterations; i++) {
+                operation.run();
+            }
+            recording.stop();
+            recording.dump(file);
+
+            long bytes = 0;
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                RecordedThread thread = event.getThread();
+                if (thread == null || thread.getJavaThreadId() != threadId) {
+                    continue;
+                }
+                bytes += NEW_TLAB.equals(event.getEventType().getName())
+                        ? event.getLong("tlabSize")
+                        : event.getLong("allocationSize");
+            }
+            return bytes / iterations;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static long budget(String name) {
+        Properties budgets = new Properties();
+        try (InputStream in = JfrAllocationMeter.class.getResourceAsStream("/allocation-budgets.properties")) {
+            budgets.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String value = budgets.getProperty(name);
+        if (value == null) {
+            throw new IllegalStateException("No allocation budget for " + name);
+        }
+        return Long.parseLong(value.trim());
+    }
+}
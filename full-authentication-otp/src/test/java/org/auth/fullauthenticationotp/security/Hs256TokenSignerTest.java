@@ -0,0 +1,62 @@
+package org.auth.fullauthenticationotp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.auth.tokenverifier.TokenVerifier;
+import org.auth.tokenverifier.VerifiedToken;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Hs256TokenSignerTest {
+
+    private final SecretKey key = Keys.hmacShaKeyFor(
+            "testSecretKeyForTestingPurposesOnlyDoNotUseInProduction123456789".getBytes(StandardCharsets.UTF_8));
+    private final Hs256TokenSigner signer = new Hs256TokenSigner(key);
+    private final long now = System.currentTimeMillis() / 1000;
+
+    @Test
+    void sign_ShouldProduceTokenJjwtAccepts() {
+        String token = signer.sign("jti-1", "test@example.com", now, now + 3600, List.of("ROLE_USER", "ROLE_ADMIN"));
+
+        Jws<Claims> parsed = Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+
+        assertEquals("HS256", parsed.getHeader().getAlgorithm());
+        assertEquals("jti-1", parsed.getPayload().getId());
+        assertEquals("test@example.com", parsed.getPayload().getSubject());
+        assertEquals(now, parsed.getPayload().getIssuedAt().getTime() / 1000);
+        assertEquals(now + 3600, parsed.getPayload().getExpiration().getTime() / 1000);
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), parsed.getPayload().get("roles"));
+    }
+
+    @Test
+    void sign_ShouldEscapeSubject_AndOmitEmptyRoles() {
+        String subject = "\"quoted\\\"\u0001@exämple.com😀";
+        String token = signer.sign("jti-2", subject, now, now + 60, List.of());
+
+        VerifiedToken verified = new TokenVerifier((alg, kid) -> key).verify(token);
+
+        assertEquals(subject, verified.getSubject());
+        assertEquals("jti-2", verified.getTokenId());
+        assertTrue(verified.getRoles().isEmpty());
+        assertNull(Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().get("roles"));
+    }
+
+    @Test
+    void sign_ShouldReuseBuffers_AcrossGrowingClaims() {
+        String longSubject = "a".repeat(2000) + "@example.com";
+
+        String large = signer.sign("jti-3", longSubject, now, now + 60, List.of("ROLE_USER"));
+        String small = signer.sign("jti-4", "b@example.com", now, now + 60, List.of("ROLE_USER"));
+
+        TokenVerifier verifier = new TokenVerifier((alg, kid) -> key);
+        assertEquals(longSubject, verifier.verify(large).getSubject());
+        assertEquals("b@example.com", verifier.verify(small).getSubject());
+    }
+}
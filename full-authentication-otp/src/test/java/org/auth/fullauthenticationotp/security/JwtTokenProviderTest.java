@@ -0,0 +1,171 @@
+package org.auth.fullauthenticationotp.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.auth.tokenverifier.VerifiedToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "testSecretKeyForTestingPurposesOnlyDoNotUseInProduction123456789";
+
+    private JwtKeyRing keyRing(JwtKeyRing.SigningAlgorithm algorithm) {
+        return keyRing(algorithm, switch (algorithm) {
+            case HMAC -> "";
+            case EdDSA -> "classpath:jwt/ed25519.p12";
+            case ES256 -> "classpath:jwt/es256.p12";
+        });
+    }
+
+    // Test keystores hold keys starting 2023-01-01 and 2024-01-01 (ed25519.p12 only) and 2099-01-01
+    private JwtKeyRing keyRing(JwtKeyRing.SigningAlgorithm algorithm, String keystore) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(keyRing, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "keystoreLocation", keystore);
+        ReflectionTestUtils.setField(keyRing, "keystorePassword", "changeit");
+        ReflectionTestUtils.setField(keyRing, "keystoreType", "PKCS12");
+        ReflectionTestUtils.setField(keyRing, "jwksMaxAge", 300L);
+        keyRing.init();
+        return keyRing;
+    }
+
+    private static void setTime(JwtKeyRing keyRing, String instant) {
+        ReflectionTestUtils.setField(keyRing, "clock", Clock.fixed(Instant.parse(instant), ZoneOffset.UTC));
+        keyRing.reload();
+    }
+
+    private JwtTokenProvider tokenProvider(JwtKeyRing keyRing) {
+        return tokenProvider(keyRing, "fast");
+    }
+
+    private JwtTokenProvider tokenProvider(JwtKeyRing keyRing, String codec) {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(keyRing);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(tokenProvider, "codec", codec);
+        tokenProvider.init();
+        return tokenProvider;
+    }
+
+    @Test
+    void hmacToken_ShouldValidate() {
+        JwtTokenProvider tokenProvider = tokenProvider(keyRing(JwtKeyRing.SigningAlgorithm.HMAC));
+
+        String token = tokenProvider.generateTokenFromUsername("test@example.com");
+
+        assertTrue(tokenProvider.validateToken(token));
+        assertEquals("test@example.com", tokenProvider.getUsernameFromToken(token));
+    }
+
+    @Test
+    void ed25519Token_ShouldCarryKidPublishedInJwks() {
+        JwtKeyRing keyRing = keyRing(JwtKeyRing.SigningAlgorithm.EdDSA);
+        JwtTokenProvider tokenProvider = tokenProvider(keyRing);
+
+        String token = tokenProvider.generateTokenFromUsername("test@example.com");
+        String kid = keyRing.activeKey().kid();
+
+        assertTrue(tokenProvider.validateToken(token));
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z"), keyRing.activeKey().activeFrom());
+        assertTrue(keyRing.jwksJson().contains("\"kid\":\"" + kid + "\""));
+        assertTrue(keyRing.jwksJson().contains("\"crv\":\"Ed25519\""));
+        assertFalse(keyRing.jwksJson().contains("\"d\""));
+        // Active and next; the 2023 key retired long enough ago that nothing it signed is still valid
+        assertEquals(2, keyRing.jwksJson().split("\"kid\"").length - 1);
+    }
+
+    @Test
+    void instancesSharingAKeystore_ShouldAcceptEachOthersTokens() {
+        JwtTokenProvider instanceA = tokenProvider(keyRing(JwtKeyRing.SigningAlgorithm.EdDSA));
+        JwtKeyRing ringB = keyRing(JwtKeyRing.SigningAlgorithm.EdDSA);
+        JwtTokenProvider instanceB = tokenProvider(ringB);
+
+        assertTrue(instanceB.validateToken(instanceA.generateTokenFromUsername("test@example.com")));
+        assertTrue(instanceA.validateToken(instanceB.generateTokenFromUsername("test@example.com")));
+        assertEquals(keyRing(JwtKeyRing.SigningAlgorithm.EdDSA).jwksEtag(), ringB.jwksEtag());
+    }
+
+    @Test
+    void tokenSignedBeforeRotation_ShouldValidate_UntilItCouldHaveExpired() {
+        JwtKeyRing keyRing = keyRing(JwtKeyRing.SigningAlgorithm.ES256);
+        JwtTokenProvider tokenProvider = tokenProvider(keyRing);
+        String token = tokenProvider.generateTokenFromUsername("test@example.com");
+        String oldKid = keyRing.activeKey().kid();
+        String oldEtag = keyRing.jwksEtag();
+
+        setTime(keyRing, "2099-01-01T00:10:00Z");
+
+        assertNotEquals(oldKid, keyRing.activeKey().kid());
+        assertNotEquals(oldEtag, keyRing.jwksEtag());
+        assertTrue(tokenProvider.validateToken(token));
+        assertTrue(tokenProvider.validateToken(tokenProvider.generateTokenFromUsername("test@example.com")));
+
+        setTime(keyRing, "2099-01-01T01:00:01Z");
+
+        assertNull(keyRing.verificationKey(oldKid));
+        assertFalse(tokenProvider.validateToken(token));
+    }
+
+    @Test
+    void legacyHmacToken_ShouldValidate_AfterSwitchToAsymmetric_OnlyWhileMigrating() {
+        JwtKeyRing keyRing = keyRing(JwtKeyRing.SigningAlgorithm.EdDSA);
+        String legacyToken = Jwts.builder()
+                .subject("test@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertFalse(tokenProvider(keyRing).validateToken(legacyToken));
+
+        JwtTokenProvider migrating = new JwtTokenProvider(keyRing);
+        ReflectionTestUtils.setField(migrating, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(migrating, "acceptLegacyHmacTokens", true);
+        migrating.init();
+        assertTrue(migrating.validateToken(legacyToken));
+    }
+
+    @Test
+    void tokenWithUnknownKid_ShouldNotValidate() {
+        JwtTokenProvider tokenProvider = tokenProvider(keyRing(JwtKeyRing.SigningAlgorithm.EdDSA));
+        JwtKeyRing otherRing = keyRing(JwtKeyRing.SigningAlgorithm.EdDSA, "classpath:jwt/ed25519-other.p12");
+        String foreignToken = tokenProvider(otherRing).generateTokenFromUsername("test@example.com");
+
+        assertFalse(tokenProvider.validateToken(foreignToken));
+    }
+
+    @Test
+    void keystoreWithOtherKeyType_ShouldFailAtStartup() {
+        assertThrows(IllegalStateException.class,
+                () -> keyRing(JwtKeyRing.SigningAlgorithm.EdDSA, "classpath:jwt/es256.p12"));
+        assertThrows(IllegalStateException.class,
+                () -> keyRing(JwtKeyRing.SigningAlgorithm.ES256, ""));
+    }
+
+    @Test
+    void hmacCodecs_ShouldIssueEquivalentTokens() {
+        JwtKeyRing keyRing = keyRing(JwtKeyRing.SigningAlgorithm.HMAC);
+
+        VerifiedToken fast = tokenProvider(keyRing, "fast").verify(
+                tokenProvider(keyRing, "fast").generateToken("test@example.com", List.of("ROLE_USER")));
+        VerifiedToken jjwt = tokenProvider(keyRing, "fast").verify(
+                tokenProvider(keyRing, "jjwt").generateToken("test@example.com", List.of("ROLE_USER")));
+
+        assertEquals("HS256", fast.getAlgorithm());
+        assertEquals("HS512", jjwt.getAlgorithm());
+        assertEquals(jjwt.getSubject(), fast.getSubject());
+        assertEquals(jjwt.getRoles(), fast.getRoles());
+        assertEquals(jjwt.getExpiresAt() - jjwt.getIssuedAt(), fast.getExpiresAt() - fast.getIssuedAt());
+        assertNotNull(fast.getTokenId());
+    }
+}
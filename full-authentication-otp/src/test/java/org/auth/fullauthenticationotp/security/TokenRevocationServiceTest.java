@@ -0,0 +1,98 @@
+package org.auth.fullauthenticationotp.security;
+
+import org.auth.tokenverifier.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTest {
+
+    private JwtTokenProvider tokenProvider;
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "jwtSecret", "testSecretKeyForTestingPurposesOnlyDoNotUseInProduction123456789");
+        ReflectionTestUtils.setField(keyRing, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(keyRing, "algorithm", JwtKeyRing.SigningAlgorithm.HMAC);
+        ReflectionTestUtils.setField(keyRing, "jwksMaxAge", 300L);
+        keyRing.init();
+
+        tokenProvider = new JwtTokenProvider(keyRing);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 3600000L);
+        tokenProvider.init();
+
+        revocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(revocationService, "jwtExpiration", 3600000L);
+    }
+
+    private VerifiedToken issue(String email) {
+        return tokenProvider.verify(tokenProvider.generateToken(email, List.of("ROLE_USER")));
+    }
+
+    @Test
+    void revoke_ShouldOnlyAffectThatToken() {
+        VerifiedToken loggedOut = issue("test@example.com");
+        VerifiedToken otherDevice = issue("test@example.com");
+
+        revocationService.revoke(loggedOut);
+
+        assertNotNull(loggedOut.getTokenId());
+        assertTrue(revocationService.isRevoked(loggedOut));
+        assertFalse(revocationService.isRevoked(otherDevice));
+    }
+
+    private static VerifiedToken issuedAt(String email, long issuedAt) {
+        VerifiedToken token = mock(VerifiedToken.class);
+        when(token.getSubject()).thenReturn(email);
+        when(token.getIssuedAt()).thenReturn(issuedAt);
+        return token;
+    }
+
+    @Test
+    void revokeAllForSubject_ShouldRejectEarlierTokens_AcrossEmailCase() {
+        long earlier = System.currentTimeMillis() / 1000 - 1;
+        VerifiedToken token = issuedAt("Test@Example.com", earlier);
+        VerifiedToken otherUser = issuedAt("other@example.com", earlier);
+
+        revocationService.revokeAllForSubject("test@example.com");
+
+        assertTrue(revocationService.isRevoked(token));
+        assertFalse(revocationService.isRevoked(otherUser));
+    }
+
+    @Test
+    void loginInTheSameSecondAsRevokeAll_ShouldBeAccepted() throws InterruptedException {
+        // Start early in a second so revocation and login share it
+        while (System.currentTimeMillis() % 1000 > 500) {
+            Thread.sleep(10);
+        }
+        long revokedAt = System.currentTimeMillis() / 1000;
+        revocationService.revokeAllForSubject("test@example.com");
+        VerifiedToken relogin = issue("test@example.com");
+
+        assertEquals(revokedAt, relogin.getIssuedAt());
+        assertFalse(revocationService.isRevoked(relogin));
+    }
+
+    @Test
+    void purgeExpired_ShouldDropEntriesOnceTokensWouldHaveExpired() {
+        VerifiedToken expired = mock(VerifiedToken.class);
+        when(expired.getTokenId()).thenReturn("expired-jti");
+        when(expired.getExpiresAt()).thenReturn(System.currentTimeMillis() / 1000 - 10);
+
+        revocationService.revoke(issue("test@example.com"));
+        revocationService.revoke(expired);
+        revocationService.revokeAllForSubject("test@example.com");
+        revocationService.purgeExpired();
+
+        assertEquals(2, revocationService.size());
+        assertFalse(revocationService.isRevoked(expired));
+    }
+}
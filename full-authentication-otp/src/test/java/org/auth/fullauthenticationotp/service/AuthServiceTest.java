@@ -1,18 +1,21 @@
 package org.auth.fullauthenticationotp.service;
 
+import org.auth.fullauthenticationotp.audit.AuditEvent;
+import org.auth.fullauthenticationotp.audit.AuditLog;
+import org.auth.fullauthenticationotp.datasource.ReadYourWritesGuard;
 import org.auth.fullauthenticationotp.dto.*;
 import org.auth.fullauthenticationotp.exception.EmailAlreadyExistsException;
 import org.auth.fullauthenticationotp.exception.EmailNotVerifiedException;
 import org.auth.fullauthenticationotp.exception.InvalidOTPException;
-import org.auth.fullauthenticationotp.model.RefreshToken;
+import org.auth.fullauthenticationotp.metrics.AuthFunnelStats;
 import org.auth.fullauthenticationotp.model.Role;
 import org.auth.fullauthenticationotp.model.RoleType;
 import org.auth.fullauthenticationotp.model.User;
 import org.auth.fullauthenticationotp.repository.OTPRepository;
-import org.auth.fullauthenticationotp.repository.RefreshTokenRepository;
 import org.auth.fullauthenticationotp.repository.RoleRepository;
 import org.auth.fullauthenticationotp.repository.UserRepository;
 import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.auth.fullauthenticationotp.security.TokenRevocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,12 +39,17 @@ class AuthServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private RoleRepository roleRepository;
     @Mock private OTPRepository otpRepository;
-    @Mock private RefreshTokenRepository refreshTokenRepository;
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private AuthenticationManager authenticationManager;
     @Mock private JwtTokenProvider tokenProvider;
     @Mock private EmailService emailService;
     @Mock private OTPService otpService;
+    @Mock private TokenRevocationService tokenRevocationService;
+    @Mock private RefreshSessionService refreshSessionService;
+    @Mock private ReadYourWritesGuard readYourWritesGuard;
+    @Mock private AuthFunnelStats funnelStats;
+    @Mock private AuditLog auditLog;
+    @Mock private UserActivityTracker userActivityTracker;
 
     @InjectMocks
     private AuthService authService;
@@ -83,7 +91,7 @@ class AuthServiceTest {
     @Test
     void signup_ShouldCreateUserSuccessfully() {
         // Arrange
-        when(userRepository.existsByEmail(signupRequest.getEmail())).thenReturn(false);
+        when(userRepository.existsByEmailCanonical(signupRequest.getEmail())).thenReturn(false);
         when(roleRepository.findByName(RoleType.ROLE_USER)).thenReturn(Optional.of(userRole));
         when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
@@ -102,7 +110,20 @@ class AuthServiceTest {
     @Test
     void signup_ShouldThrowException_WhenEmailExists() {
         // Arrange
-        when(userRepository.existsByEmail(signupRequest.getEmail())).thenReturn(true);
+        when(userRepository.existsByEmailCanonical(signupRequest.getEmail())).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(EmailAlreadyExistsException.class, () ->
+                authService.signup(signupRequest)
+        );
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void signup_ShouldThrowException_WhenEmailExistsWithDifferentCase() {
+        // Arrange
+        signupRequest.setEmail("  Test@Example.COM ");
+        when(userRepository.existsByEmailCanonical("test@example.com")).thenReturn(true);
 
         // Act & Assert
         assertThrows(EmailAlreadyExistsException.class, () ->
@@ -117,16 +138,11 @@ class AuthServiceTest {
         Authentication authentication = mock(Authentication.class);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(userRepository.findByEmail(loginRequest.getEmail()))
+        when(userRepository.findByEmailCanonical(loginRequest.getEmail()))
                 .thenReturn(Optional.of(testUser));
         when(tokenProvider.generateToken(authentication)).thenReturn("accessToken");
 
-        RefreshToken refreshToken = RefreshToken.builder()
-                .token("refreshToken")
-                .user(testUser)
-                .expiryDate(LocalDateTime.now().plusDays(7))
-                .build();
-        when(otpService.createRefreshToken(testUser)).thenReturn(refreshToken);
+        when(refreshSessionService.create(testUser)).thenReturn("refreshToken");
 
         // Act
         AuthResponse response = authService.login(loginRequest);
@@ -137,6 +153,9 @@ class AuthServiceTest {
         assertEquals("refreshToken", response.getRefreshToken());
         assertNotNull(response.getUser());
         assertEquals(testUser.getEmail(), response.getUser().getEmail());
+        verify(funnelStats).record(AuthFunnelStats.Event.LOGIN);
+        verify(auditLog).record(AuditEvent.Type.LOGIN_SUCCESS, testUser.getEmail());
+        verify(userActivityTracker).recordLogin(testUser.getEmail());
     }
 
     @Test
@@ -146,13 +165,15 @@ class AuthServiceTest {
         Authentication authentication = mock(Authentication.class);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(userRepository.findByEmail(loginRequest.getEmail()))
+        when(userRepository.findByEmailCanonical(loginRequest.getEmail()))
                 .thenReturn(Optional.of(testUser));
 
         // Act & Assert
         assertThrows(EmailNotVerifiedException.class, () ->
                 authService.login(loginRequest)
         );
+        verify(funnelStats).record(AuthFunnelStats.Event.LOGIN_FAILURE);
+        verify(auditLog).record(AuditEvent.Type.LOGIN_FAILURE, testUser.getEmail());
     }
 
     @Test
@@ -166,7 +187,7 @@ class AuthServiceTest {
         testUser.setEnabled(false);
 
         when(otpService.validateOTP(request.getEmail(), request.getOtp())).thenReturn(true);
-        when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(testUser));
+        when(userRepository.findByEmailCanonical(request.getEmail())).thenReturn(Optional.of(testUser));
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
         // Act
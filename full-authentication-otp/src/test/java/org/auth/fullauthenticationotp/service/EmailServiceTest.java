@@ -0,0 +1,63 @@
+package org.auth.fullauthenticationotp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import org.auth.fullauthenticationotp.mail.MailTemplates;
+import org.auth.fullauthenticationotp.metrics.AuthMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmailServiceTest {
+
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+    private final EmailService emailService = new EmailService(mailSender,
+            new AuthMetrics(new SimpleMeterRegistry()), new MailTemplates());
+
+    @AfterEach
+    void resetLocale() {
+        LocaleContextHolder.resetLocaleContext();
+    }
+
+    private MimeMessage sentMessage() throws Exception {
+        ArgumentCaptor<MimeMessagePreparator> preparator = ArgumentCaptor.forClass(MimeMessagePreparator.class);
+        verify(mailSender).send(preparator.capture());
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        preparator.getValue().prepare(message);
+        message.saveChanges();
+        return message;
+    }
+
+    @Test
+    void sendOTPEmail_ShouldSendMultipartTextAndHtml_InTheRequestLocale() throws Exception {
+        ReflectionTestUtils.setField(emailService, "otpExpiration", 300000L);
+        LocaleContextHolder.setLocale(Locale.FRANCE);
+
+        emailService.sendOTPEmail("user@example.com", "246810");
+
+        MimeMessage message = sentMessage();
+        assertEquals("user@example.com", message.getAllRecipients()[0].toString());
+        assertTrue(message.getSubject().startsWith("Vérification"));
+        assertInstanceOf(MimeMultipart.class, message.getContent());
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        message.writeTo(raw);
+        String body = raw.toString(StandardCharsets.UTF_8);
+        assertTrue(body.contains("text/plain"));
+        assertTrue(body.contains("text/html"));
+        assertTrue(body.contains("246810"));
+    }
+}
@@ -0,0 +1,142 @@
+package org.auth.fullauthenticationotp.service;
+
+import org.auth.fullauthenticationotp.datasource.ShardRouter;
+import org.auth.fullauthenticationotp.dto.AuthResponse;
+import org.auth.fullauthenticationotp.exception.InvalidTokenException;
+import org.auth.fullauthenticationotp.model.RefreshToken;
+import org.auth.fullauthenticationotp.model.Role;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.repository.RefreshTokenRepository;
+import org.auth.fullauthenticationotp.security.RefreshTokenCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RefreshCoalescerTest {
+
+    private static final int CALLERS = 16;
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenCodec refreshTokenCodec;
+    private RefreshSessionService refreshSessionService;
+    private RefreshCoalescer refreshCoalescer;
+    private String token;
+    private final CountDownLatch lookupStarted = new CountDownLatch(1);
+    private volatile CountDownLatch lookupRelease = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        refreshTokenCodec = new RefreshTokenCodec("testRefreshTokenSecret");
+        refreshSessionService = new RefreshSessionService(refreshTokenRepository, refreshTokenCodec,
+                new ShardRouter(false, List.of()));
+        ReflectionTestUtils.setField(refreshSessionService, "cacheTtl", 900000L);
+        refreshCoalescer = new RefreshCoalescer();
+        ReflectionTestUtils.setField(refreshCoalescer, "reuseWindowMillis", 5000L);
+
+        User user = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .roles(Set.of(new Role(1L, RoleType.ROLE_USER)))
+                .build();
+        RefreshToken session = RefreshToken.builder()
+                .id(7L)
+                .user(user)
+                .version(0)
+                .lastUsedAt(LocalDateTime.now())
+                .expiryDate(LocalDateTime.now().plusDays(1))
+                .build();
+        token = refreshTokenCodec.encode(new RefreshTokenCodec.Claims(
+                1L, 7L, 0L, System.currentTimeMillis() / 1000 + 3600));
+        // Held until the test releases it, so callers can be lined up behind a refresh in flight
+        when(refreshTokenRepository.findWithUserById(7L)).thenAnswer(inv -> {
+            lookupStarted.countDown();
+            assertTrue(lookupRelease.await(10, TimeUnit.SECONDS));
+            return Optional.of(session);
+        });
+        when(refreshTokenRepository.rotate(eq(7L), eq(0L), any(LocalDateTime.class))).thenReturn(1);
+    }
+
+    private AuthResponse refresh(String refreshToken) {
+        RefreshSessionService.Rotation rotation = refreshSessionService.rotate(refreshToken);
+        return AuthResponse.builder().refreshToken(rotation.refreshToken()).user(rotation.user()).build();
+    }
+
+    @Test
+    void refresh_ShouldServeConcurrentCallers_WithOneLookup() throws Exception {
+        // No reuse window: a caller that arrived after the first refresh completed would rotate again
+        ReflectionTestUtils.setField(refreshCoalescer, "reuseWindowMillis", 0L);
+        lookupRelease = new CountDownLatch(1);
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS, task -> {
+            Thread thread = new Thread(task);
+            threads.add(thread);
+            return thread;
+        });
+        try {
+            List<Future<AuthResponse>> responses = new ArrayList<>();
+            responses.add(executor.submit(() -> refreshCoalescer.refresh(token, this::refresh)));
+            assertTrue(lookupStarted.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i < CALLERS; i++) {
+                responses.add(executor.submit(() -> refreshCoalescer.refresh(token, this::refresh)));
+            }
+            awaitWaiting(threads, CALLERS - 1);
+            lookupRelease.countDown();
+
+            AuthResponse first = responses.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<AuthResponse> response : responses) {
+                assertSame(first, response.get(10, TimeUnit.SECONDS));
+            }
+            verify(refreshTokenRepository, times(1)).findWithUserById(7L);
+            verify(refreshTokenRepository, times(1)).rotate(eq(7L), eq(0L), any(LocalDateTime.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // The first caller is in the lookup (TIMED_WAITING); the others are parked on its result
+    private static void awaitWaiting(List<Thread> threads, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (threads.stream().filter(thread -> thread.getState() == Thread.State.WAITING).count() < expected) {
+            if (System.nanoTime() > deadline) {
+                fail("Callers did not join the refresh in flight");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void refresh_ShouldReuseResult_WithinWindow_AndRotateAgainAfter() {
+        AuthResponse first = refreshCoalescer.refresh(token, this::refresh);
+        assertSame(first, refreshCoalescer.refresh(token, this::refresh));
+
+        ReflectionTestUtils.setField(refreshCoalescer, "reuseWindowMillis", 0L);
+        InvalidTokenException ex = assertThrows(InvalidTokenException.class,
+                () -> refreshCoalescer.refresh(token, this::refresh));
+        assertEquals("Refresh token reuse detected", ex.getMessage());
+    }
+
+    @Test
+    void refresh_ShouldNotKeepFailures() {
+        // Flip the first signature character; the last one partly encodes padding bits
+        int signature = token.indexOf('.') + 1;
+        String tampered = token.substring(0, signature) + (token.charAt(signature) == 'A' ? 'B' : 'A')
+                + token.substring(signature + 1);
+
+        assertThrows(InvalidTokenException.class, () -> refreshCoalescer.refresh(tampered, this::refresh));
+        assertThrows(InvalidTokenException.class, () -> refreshCoalescer.refresh(tampered, this::refresh));
+        verifyNoInteractions(refreshTokenRepository);
+    }
+}
@@ -0,0 +1,173 @@
+package org.auth.fullauthenticationotp.service;
+
+import org.auth.fullauthenticationotp.datasource.ShardRouter;
+import org.auth.fullauthenticationotp.exception.InvalidTokenException;
+import org.auth.fullauthenticationotp.model.RefreshToken;
+import org.auth.fullauthenticationotp.model.Role;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.repository.RefreshTokenRepository;
+import org.auth.fullauthenticationotp.security.RefreshTokenCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshSessionServiceTest {
+
+    @Mock private RefreshTokenRepository refreshTokenRepository;
+    @Spy private RefreshTokenCodec refreshTokenCodec = new RefreshTokenCodec("testRefreshTokenSecret");
+    @Spy private ShardRouter shardRouter = new ShardRouter(false, List.of());
+
+    @InjectMocks
+    private RefreshSessionService refreshSessionService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshSessionService, "refreshTokenExpiration", 604800000L);
+        ReflectionTestUtils.setField(refreshSessionService, "maxSessions", 3);
+        ReflectionTestUtils.setField(refreshSessionService, "cacheTtl", 900000L);
+        user = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .roles(Set.of(new Role(1L, RoleType.ROLE_USER)))
+                .build();
+    }
+
+    private String login(long sessionId) {
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> {
+            RefreshToken refreshToken = inv.getArgument(0);
+            refreshToken.setId(sessionId);
+            return refreshToken;
+        });
+        return refreshSessionService.create(user);
+    }
+
+    @Test
+    void create_ShouldIssueSignedToken_AndTrimOldestSessions() {
+        when(refreshTokenRepository.findIdsByUserNewestFirst(user)).thenReturn(List.of(9L, 8L, 7L, 6L));
+
+        String token = login(9L);
+
+        RefreshTokenCodec.Claims claims = refreshTokenCodec.decode(token);
+        assertEquals(1L, claims.userId());
+        assertEquals(9L, claims.sessionId());
+        assertEquals(0L, claims.version());
+        verify(refreshTokenRepository).deleteByIdIn(List.of(6L));
+    }
+
+    @Test
+    void rotate_ShouldOnlyWriteVersion_WhenSessionCached() {
+        when(refreshTokenRepository.findIdsByUserNewestFirst(user)).thenReturn(List.of(9L));
+        String token = login(9L);
+        when(refreshTokenRepository.rotate(eq(9L), eq(0L), any(LocalDateTime.class))).thenReturn(1);
+
+        RefreshSessionService.Rotation rotation = refreshSessionService.rotate(token);
+
+        assertEquals(1L, refreshTokenCodec.decode(rotation.refreshToken()).version());
+        assertEquals("test@example.com", rotation.user().getEmail());
+        assertEquals(Set.of("ROLE_USER"), rotation.user().getRoles());
+        verify(refreshTokenRepository, never()).findWithUserById(anyLong());
+    }
+
+    @Test
+    void rotate_ShouldEndSession_WhenRotatedTokenIsReused() {
+        when(refreshTokenRepository.findIdsByUserNewestFirst(user)).thenReturn(List.of(9L));
+        String token = login(9L);
+        when(refreshTokenRepository.rotate(eq(9L), eq(0L), any(LocalDateTime.class))).thenReturn(1);
+        refreshSessionService.rotate(token);
+
+        InvalidTokenException ex = assertThrows(InvalidTokenException.class,
+                () -> refreshSessionService.rotate(token));
+
+        assertEquals("Refresh token reuse detected", ex.getMessage());
+        verify(refreshTokenRepository).deleteByIdIn(List.of(9L));
+    }
+
+    @Test
+    void rotate_ShouldLoadSession_WhenNotCached() {
+        RefreshToken stored = RefreshToken.builder()
+                .id(5L)
+                .user(user)
+                .version(2)
+                .lastUsedAt(LocalDateTime.now())
+                .expiryDate(LocalDateTime.now().plusDays(1))
+                .build();
+        long expiresAt = System.currentTimeMillis() / 1000 + 3600;
+        String token = refreshTokenCodec.encode(new RefreshTokenCodec.Claims(1L, 5L, 2L, expiresAt));
+        when(refreshTokenRepository.findWithUserById(5L)).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.rotate(eq(5L), eq(2L), any(LocalDateTime.class))).thenReturn(1);
+
+        RefreshSessionService.Rotation rotation = refreshSessionService.rotate(token);
+
+        assertEquals(3L, refreshTokenCodec.decode(rotation.refreshToken()).version());
+    }
+
+    @Test
+    void findSessions_ShouldReadTheTable_EvenWhenCached() {
+        when(refreshTokenRepository.findIdsByUserNewestFirst(user)).thenReturn(List.of(8L, 9L));
+        login(8L);
+        login(9L);
+        // Another instance rotated session 8 twice and revoked session 9
+        RefreshToken rotatedElsewhere = RefreshToken.builder()
+                .id(8L)
+                .user(user)
+                .version(2)
+                .lastUsedAt(LocalDateTime.now())
+                .expiryDate(LocalDateTime.now().plusDays(1))
+                .build();
+        when(refreshTokenRepository.findAllWithUserByIdIn(anyCollection())).thenReturn(List.of(rotatedElsewhere));
+
+        Map<Long, RefreshSessionService.Session> sessions = refreshSessionService.findSessions(Set.of(8L, 9L));
+
+        assertEquals(Set.of(8L), sessions.keySet());
+        assertEquals(2L, sessions.get(8L).version());
+        verify(refreshTokenRepository, times(1)).findAllWithUserByIdIn(anyCollection());
+    }
+
+    @Test
+    void rotate_ShouldReject_WhenSignatureTampered() {
+        long expiresAt = System.currentTimeMillis() / 1000 + 3600;
+        String token = refreshTokenCodec.encode(new RefreshTokenCodec.Claims(1L, 5L, 0L, expiresAt));
+        // Flip the first signature character; the last one partly encodes padding bits
+        int signature = token.indexOf('.') + 1;
+        String tampered = token.substring(0, signature) + (token.charAt(signature) == 'A' ? 'B' : 'A')
+                + token.substring(signature + 1);
+
+        assertThrows(InvalidTokenException.class, () -> refreshSessionService.rotate(tampered));
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void rotate_ShouldReject_NonCanonicalSpellingsOfAValidToken() {
+        long expiresAt = System.currentTimeMillis() / 1000 + 3600;
+        String token = refreshTokenCodec.encode(new RefreshTokenCodec.Claims(1L, 5L, 0L, expiresAt));
+        // The last signature character carries 2 unused bits; setting them decodes to the same bytes
+        // under a lenient decoder, which would give one session several coalescing keys
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        int last = alphabet.indexOf(token.charAt(token.length() - 1));
+        for (int low = 1; low < 4; low++) {
+            String variant = token.substring(0, token.length() - 1) + alphabet.charAt(last | low);
+
+            assertThrows(InvalidTokenException.class, () -> refreshSessionService.rotate(variant));
+        }
+        verifyNoInteractions(refreshTokenRepository);
+    }
+}
@@ -0,0 +1,89 @@
+package org.auth.fullauthenticationotp.service;
+
+import org.auth.fullauthenticationotp.dto.TokenIntrospectionResult;
+import org.auth.fullauthenticationotp.dto.UserDTO;
+import org.auth.fullauthenticationotp.security.JwtTokenProvider;
+import org.auth.fullauthenticationotp.security.RefreshTokenCodec;
+import org.auth.fullauthenticationotp.security.TokenRevocationService;
+import org.auth.tokenverifier.TokenVerificationException;
+import org.auth.tokenverifier.VerifiedToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenIntrospectionServiceTest {
+
+    @Mock private JwtTokenProvider tokenProvider;
+    @Mock private TokenRevocationService tokenRevocationService;
+    @Mock private RefreshSessionService refreshSessionService;
+    @Spy private RefreshTokenCodec refreshTokenCodec = new RefreshTokenCodec("testRefreshTokenSecret");
+
+    @InjectMocks
+    private TokenIntrospectionService introspectionService;
+
+    private final long expiresAt = System.currentTimeMillis() / 1000 + 3600;
+
+    private String refreshToken(long sessionId, long version) {
+        return refreshTokenCodec.encode(new RefreshTokenCodec.Claims(1L, sessionId, version, expiresAt));
+    }
+
+    private RefreshSessionService.Session session(long sessionId, long version) {
+        UserDTO user = UserDTO.builder().id(1L).email("test@example.com").roles(Set.of("ROLE_USER")).build();
+        return new RefreshSessionService.Session(sessionId, 1L, version, expiresAt, user, System.currentTimeMillis());
+    }
+
+    @Test
+    void introspect_ShouldResolveMixedBatch_WithSingleSessionLookup() {
+        VerifiedToken accessClaims = mock(VerifiedToken.class);
+        when(accessClaims.getSubject()).thenReturn("test@example.com");
+        when(accessClaims.getRoles()).thenReturn(List.of("ROLE_USER"));
+        when(accessClaims.getExpiresAt()).thenReturn(1_900_000_000L);
+        when(tokenProvider.verify("a.b.c")).thenReturn(accessClaims);
+        when(tokenProvider.verify("x.y.z")).thenThrow(new TokenVerificationException("Invalid token signature"));
+        String live = refreshToken(1L, 3L);
+        String rotatedAway = refreshToken(2L, 0L);
+        String unknown = refreshToken(3L, 0L);
+        Map<Long, RefreshSessionService.Session> sessions = Map.of(1L, session(1L, 3L), 2L, session(2L, 1L));
+        when(refreshSessionService.findSessions(anyCollection())).thenReturn(sessions);
+
+        List<TokenIntrospectionResult> results = introspectionService.introspect(
+                List.of(live, "a.b.c", rotatedAway, unknown, "x.y.z", live, "garbage"));
+
+        assertEquals(7, results.size());
+        assertTrue(results.get(0).isActive());
+        assertEquals("refresh_token", results.get(0).getTokenType());
+        assertEquals(List.of("ROLE_USER"), results.get(0).getRoles());
+        assertEquals(expiresAt, results.get(0).getExpiresAt());
+        assertTrue(results.get(1).isActive());
+        assertEquals("access_token", results.get(1).getTokenType());
+        assertEquals(1_900_000_000L, results.get(1).getExpiresAt());
+        assertFalse(results.get(2).isActive());
+        assertFalse(results.get(3).isActive());
+        assertFalse(results.get(4).isActive());
+        assertTrue(results.get(5).isActive());
+        assertFalse(results.get(6).isActive());
+        verify(refreshSessionService, times(1)).findSessions(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void introspect_ShouldSkipLookup_WhenOnlyAccessTokens() {
+        when(tokenProvider.verify(anyString())).thenThrow(new TokenVerificationException("Token expired"));
+
+        List<TokenIntrospectionResult> results = introspectionService.introspect(List.of("a.b.c"));
+
+        assertFalse(results.get(0).isActive());
+        verifyNoInteractions(refreshSessionService);
+    }
+}
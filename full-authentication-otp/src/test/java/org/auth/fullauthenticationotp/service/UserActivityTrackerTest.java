@@ -0,0 +1,93 @@
+package org.auth.fullauthenticationotp.service;
+
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class UserActivityTrackerTest {
+
+    @Autowired private UserActivityTracker userActivityTracker;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @MockitoBean private JavaMailSender mailSender;
+
+    private User user(String email) {
+        return userRepository.saveAndFlush(User.builder()
+                .email(email)
+                .password("unused")
+                .firstName("Active")
+                .lastName("User")
+                .build());
+    }
+
+    private Map<String, Object> activity(String email) {
+        return jdbcTemplate.queryForMap("select last_login_at, last_seen_at from users where email = ?", email);
+    }
+
+    @Test
+    void flush_ShouldWriteOneUpdatePerUser_AfterManyRequests() {
+        user("busy@activity.test");
+        user("idle@activity.test");
+        userActivityTracker.flush();
+
+        userActivityTracker.recordLogin("busy@activity.test");
+        for (int i = 0; i < 1000; i++) {
+            userActivityTracker.recordSeen("busy@activity.test");
+        }
+        assertEquals(1, userActivityTracker.pendingUsers());
+        userActivityTracker.flush();
+
+        Map<String, Object> busy = activity("busy@activity.test");
+        Timestamp lastLogin = (Timestamp) busy.get("LAST_LOGIN_AT");
+        Timestamp lastSeen = (Timestamp) busy.get("LAST_SEEN_AT");
+        assertNotNull(lastLogin);
+        assertFalse(lastSeen.before(lastLogin));
+        assertNull(activity("idle@activity.test").get("LAST_SEEN_AT"));
+        assertEquals(0, userActivityTracker.pendingUsers());
+    }
+
+    @Test
+    void flush_ShouldKeepLastLogin_WhenOnlySeen_AndNeverMoveBackwards() {
+        user("seen@activity.test");
+        userActivityTracker.recordLogin("seen@activity.test");
+        userActivityTracker.flush();
+        Object firstLogin = activity("seen@activity.test").get("LAST_LOGIN_AT");
+
+        // Another instance flushed a later time in the meantime
+        Timestamp future = Timestamp.valueOf(LocalDateTime.now().plusDays(1).withNano(0));
+        jdbcTemplate.update("update users set last_seen_at = ? where email = ?", future, "seen@activity.test");
+        userActivityTracker.recordSeen("Seen@Activity.test");
+        userActivityTracker.flush();
+
+        assertEquals(firstLogin, activity("seen@activity.test").get("LAST_LOGIN_AT"));
+        assertEquals(future, activity("seen@activity.test").get("LAST_SEEN_AT"));
+    }
+
+    @Test
+    void save_ShouldNotOverwriteTrackedColumns() {
+        User user = user("saved@activity.test");
+        userActivityTracker.recordLogin("saved@activity.test");
+        userActivityTracker.flush();
+
+        user.setFirstName("Renamed");
+        userRepository.saveAndFlush(user);
+
+        assertNotNull(activity("saved@activity.test").get("LAST_LOGIN_AT"));
+    }
+}
@@ -0,0 +1,137 @@
+package org.auth.fullauthenticationotp.service;
+
+import org.auth.fullauthenticationotp.dto.UserImportProgress;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// Small batches so that every import spans several JDBC batches and progress reports
+@SpringBootTest(properties = {
+        "security.bcrypt-strength=4",
+        "user-import.batch-size=2",
+        "user-import.progress-interval=3"
+})
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+    @Autowired private UserImportService userImportService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PasswordEncoder passwordEncoder;
+    @MockitoBean private JavaMailSender mailSender;
+
+    private UserImportProgress importUsers(String contentType, String body, List<UserImportProgress> progress) {
+        return userImportService.importUsers(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType, progress::add);
+    }
+
+    @Test
+    @Transactional
+    void importUsers_ShouldInsertNdjsonRows_WithHashedAndPreHashedPasswords() {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("Legacy#Pass1");
+        String body = """
+                {"email":"Plain.Import@example.com","password":"Plain#Pass1","firstName":"Plain","lastName":"Import","emailVerified":true}
+                {"email":"hashed.import@example.com","passwordHash":"%s","firstName":"Hashed","lastName":"Import"}
+                {"email":"not-an-email","password":"Plain#Pass1","firstName":"Bad","lastName":"Email"}
+                {"email":"both.import@example.com","password":"x","passwordHash":"%s","firstName":"Both","lastName":"Set"}
+                {"email":
+                """.formatted(legacyHash, legacyHash);
+        List<UserImportProgress> progress = new ArrayList<>();
+
+        UserImportProgress result = importUsers("application/x-ndjson", body, progress);
+
+        assertNull(result.getAborted());
+        assertEquals(5, result.getProcessed());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(3, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("line 3: email"));
+        assertFalse(progress.isEmpty());
+
+        User plain = userRepository.findByEmailCanonical("plain.import@example.com").orElseThrow();
+        assertEquals("Plain.Import@example.com", plain.getEmail());
+        assertTrue(passwordEncoder.matches("Plain#Pass1", plain.getPassword()));
+        assertTrue(plain.isEmailVerified() && plain.isEnabled());
+        assertEquals(RoleType.ROLE_USER, plain.getRoles().iterator().next().getName());
+
+        User hashed = userRepository.findByEmailCanonical("hashed.import@example.com").orElseThrow();
+        assertEquals(legacyHash, hashed.getPassword());
+        assertFalse(hashed.isEnabled());
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    @Transactional
+    void importUsers_ShouldReadCsvWithQuotedFields() {
+        String body = """
+                email,firstName,lastName,password,emailVerified
+                csv.one@example.com,"Smith, Jr.",One,Csv#Pass1,true
+                csv.two@example.com,"O""Brien",Two,Csv#Pass2,
+                csv.three@example.com,Three,"unterminated,Csv#Pass3,true
+                """;
+
+        UserImportProgress result = importUsers("text/csv", body, new ArrayList<>());
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals("Smith, Jr.", userRepository.findByEmailCanonical("csv.one@example.com").orElseThrow().getFirstName());
+        User two = userRepository.findByEmailCanonical("csv.two@example.com").orElseThrow();
+        assertEquals("O\"Brien", two.getFirstName());
+        assertFalse(two.isEmailVerified());
+    }
+
+    @Test
+    @Transactional
+    void importUsers_ShouldSkipExistingAccounts_AndDuplicatesWithinTheFile() {
+        importUsers("application/x-ndjson", """
+                {"email":"existing.import@example.com","password":"First#Pass1","firstName":"First","lastName":"Import"}
+                """, new ArrayList<>());
+
+        UserImportProgress result = importUsers("application/x-ndjson", """
+                {"email":"EXISTING.import@example.com","password":"Second#Pass1","firstName":"Second","lastName":"Import"}
+                {"email":"repeat.import@example.com","password":"Repeat#Pass1","firstName":"Repeat","lastName":"One"}
+                {"email":"repeat.import@example.com","password":"Repeat#Pass2","firstName":"Repeat","lastName":"Two"}
+                """, new ArrayList<>());
+
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getSkipped());
+        assertEquals("First", userRepository.findByEmailCanonical("existing.import@example.com").orElseThrow().getFirstName());
+        assertEquals("One", userRepository.findByEmailCanonical("repeat.import@example.com").orElseThrow().getLastName());
+    }
+
+    @Test
+    @Transactional
+    void importUsers_ShouldRejectWeakAndOverlongPasswords_OnlyOnTheirOwnRows() {
+        // 4 + 35 two-byte chars: 39 characters but 74 bytes, over the BCrypt limit
+        String overlong = "Aa1@" + "\u00e9".repeat(35);
+        UserImportProgress result = importUsers("application/x-ndjson", """
+                {"email":"weak.import@example.com","password":"password","firstName":"Weak","lastName":"Import"}
+                {"email":"long.import@example.com","password":"%s","firstName":"Long","lastName":"Import"}
+                {"email":"fine.import@example.com","password":"Fine#Pass1","firstName":"Fine","lastName":"Import"}
+                """.formatted(overlong), new ArrayList<>());
+
+        assertNull(result.getAborted());
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertTrue(result.getErrors().get(0).startsWith("line 1: password: Password must contain"));
+        assertTrue(result.getErrors().get(1).startsWith("line 2: passwordWithinBcryptLimit: Password must be at most 72 bytes"));
+        assertTrue(userRepository.findByEmailCanonical("fine.import@example.com").isPresent());
+        assertTrue(userRepository.findByEmailCanonical("long.import@example.com").isEmpty());
+    }
+}
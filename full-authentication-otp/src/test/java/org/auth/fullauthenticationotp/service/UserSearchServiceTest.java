@@ -0,0 +1,114 @@
+package org.auth.fullauthenticationotp.service;
+
+import org.auth.fullauthenticationotp.dto.UserDTO;
+import org.auth.fullauthenticationotp.dto.UserPage;
+import org.auth.fullauthenticationotp.model.RoleType;
+import org.auth.fullauthenticationotp.model.User;
+import org.auth.fullauthenticationotp.repository.RoleRepository;
+import org.auth.fullauthenticationotp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class UserSearchServiceTest {
+
+    @Autowired private UserSearchService userSearchService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoleRepository roleRepository;
+    @MockitoBean private JavaMailSender mailSender;
+
+    private User user(String email, String firstName, String lastName, RoleType... roles) {
+        return userRepository.saveAndFlush(User.builder()
+                .email(email)
+                .password("unused")
+                .firstName(firstName)
+                .lastName(lastName)
+                .roles(Set.of(roles).stream()
+                        .map(role -> roleRepository.findByName(role).orElseThrow())
+                        .collect(Collectors.toSet()))
+                .build());
+    }
+
+    private static UserSearchService.Filter email(String prefix) {
+        return new UserSearchService.Filter(prefix, null, null);
+    }
+
+    @Test
+    void search_ShouldWalkAllMatches_InIdOrderWithoutOverlap() {
+        for (int i = 0; i < 5; i++) {
+            user("Page" + i + "@search.test", "Page", "User" + i, RoleType.ROLE_USER);
+        }
+        user("other@search.test", "Other", "User", RoleType.ROLE_USER);
+
+        List<Long> ids = new ArrayList<>();
+        UserPage page = userSearchService.search(email("PAGE"), 0, 2);
+        ids.addAll(page.getUsers().stream().map(UserDTO::getId).toList());
+        while (page.getNextAfter() != null) {
+            page = userSearchService.search(email("page"), page.getNextAfter(), 2);
+            ids.addAll(page.getUsers().stream().map(UserDTO::getId).toList());
+        }
+
+        assertEquals(5, ids.size());
+        assertEquals(ids.stream().sorted().distinct().toList(), ids);
+        assertEquals(Set.of("ROLE_USER"), userSearchService.search(email("page0"), 0, 10).getUsers().get(0).getRoles());
+    }
+
+    @Test
+    void search_ShouldCombineNamePrefixAndRoleFilters() {
+        user("ada@filter.test", "Ada", "Lovelace", RoleType.ROLE_USER, RoleType.ROLE_ADMIN);
+        user("alan@filter.test", "Alan", "Turing", RoleType.ROLE_USER);
+        user("grace@filter.test", "Grace", "Adams", RoleType.ROLE_VENDOR);
+
+        List<String> byName = userSearchService.search(new UserSearchService.Filter("", "Ad", null), 0, 10)
+                .getUsers().stream().map(UserDTO::getEmail).toList();
+        List<String> admins = userSearchService.search(
+                new UserSearchService.Filter("", "A", Set.of(RoleType.ROLE_ADMIN, RoleType.ROLE_VENDOR)), 0, 10)
+                .getUsers().stream().map(UserDTO::getEmail).toList();
+
+        assertEquals(List.of("ada@filter.test", "grace@filter.test"), byName);
+        assertEquals(List.of("ada@filter.test", "grace@filter.test"), admins);
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"),
+                userSearchService.search(email("ada@"), 0, 10).getUsers().get(0).getRoles());
+    }
+
+    @Test
+    void search_ShouldTreatWildcardsInThePrefixLiterally() {
+        user("under_score@like.test", "Under", "Score", RoleType.ROLE_USER);
+        user("underXscore@like.test", "Under", "X", RoleType.ROLE_USER);
+
+        List<String> matches = userSearchService.search(email("under_"), 0, 10)
+                .getUsers().stream().map(UserDTO::getEmail).toList();
+
+        assertEquals(List.of("under_score@like.test"), matches);
+        assertTrue(userSearchService.search(email("%"), 0, 10).getUsers().isEmpty());
+    }
+
+    @Test
+    void export_ShouldStreamEveryMatch_WithAllItsRoles() {
+        user("one@export.test", "One", "Export", RoleType.ROLE_USER, RoleType.ROLE_VENDOR);
+        user("two@export.test", "Two", "Export");
+        user("three@export.test", "Three", "Export", RoleType.ROLE_ADMIN);
+
+        List<UserDTO> exported = new ArrayList<>();
+        userSearchService.export(new UserSearchService.Filter(null, "Export", null), exported::add);
+
+        assertEquals(List.of("one@export.test", "two@export.test", "three@export.test"),
+                exported.stream().map(UserDTO::getEmail).toList());
+        assertEquals(Set.of("ROLE_USER", "ROLE_VENDOR"), exported.get(0).getRoles());
+        assertEquals(Set.of(), exported.get(1).getRoles());
+    }
+}
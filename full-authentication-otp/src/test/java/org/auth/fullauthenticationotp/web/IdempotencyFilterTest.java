@@ -0,0 +1,207 @@
+package org.auth.fullauthenticationotp.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private IdempotencyCache cache;
+    private IdempotencyFilter filter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new IdempotencyCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60000L);
+        filter = new IdempotencyFilter(cache);
+        ReflectionTestUtils.setField(filter, "waitTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(filter, "maxBodySize", 1024);
+    }
+
+    private static MockHttpServletRequest signup(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/signup");
+        request.setServletPath("/api/auth/signup");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        return request;
+    }
+
+    // Echoes the body it read, so a replay can be told apart from a second execution
+    private FilterChain controller(int status) {
+        return (request, response) -> {
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setContentType("application/json");
+            http.setHeader("Location", "/api/users/" + executions.incrementAndGet());
+            http.getOutputStream().write(("{\"echo\":" + body + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void retry_ShouldReplayTheFirstResponse_WithoutRunningAgain() throws Exception {
+        MockHttpServletResponse first = send(signup("key-1", "{\"email\":\"a@example.com\"}"), controller(201));
+        MockHttpServletResponse retry = send(signup("key-1", "{\"email\":\"a@example.com\"}"), controller(201));
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("{\"echo\":{\"email\":\"a@example.com\"}}", retry.getContentAsString());
+        assertEquals("/api/users/1", retry.getHeader("Location"));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void request_ShouldRunEveryTime_WithoutAKeyOrWithANewOne() throws Exception {
+        send(signup(null, "{}"), controller(201));
+        send(signup(null, "{}"), controller(201));
+        send(signup("key-a", "{}"), controller(201));
+        send(signup("key-b", "{}"), controller(201));
+
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void body_ShouldBeReadable_ThroughAReadListener() throws Exception {
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        FilterChain asyncReader = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+        };
+
+        send(signup("key-5", "{\"email\":\"a@example.com\"}"), asyncReader);
+
+        assertTrue(allRead.get());
+        assertEquals("{\"email\":\"a@example.com\"}", read.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void reusedKey_ShouldBeRejected_ForADifferentRequest() throws Exception {
+        send(signup("key-2", "{\"email\":\"a@example.com\"}"), controller(201));
+        MockHttpServletResponse other = send(signup("key-2", "{\"email\":\"b@example.com\"}"), controller(201));
+
+        assertEquals(422, other.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void serverError_ShouldNotBeKept() throws Exception {
+        send(signup("key-3", "{}"), controller(503));
+        MockHttpServletResponse retry = send(signup("key-3", "{}"), controller(201));
+
+        assertEquals(201, retry.getStatus());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void inFlightDuplicate_ShouldWaitForTheOriginal_AndShareItsResponse() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            controller(201).doFilter(request, response);
+        };
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<MockHttpServletResponse> original = executor.submit(() -> send(signup("key-4", "{}"), slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            FutureTask<MockHttpServletResponse> duplicate = new FutureTask<>(() -> send(signup("key-4", "{}"), slow));
+            Thread duplicateThread = new Thread(duplicate, "idempotency-duplicate");
+            duplicateThread.start();
+            awaitParked(duplicateThread);
+            assertFalse(duplicate.isDone());
+            release.countDown();
+
+            assertEquals(original.get().getContentAsString(), duplicate.get().getContentAsString());
+            assertEquals("true", duplicate.get().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        }
+        assertEquals(1, executions.get());
+    }
+
+    // The duplicate is parked on the original's response rather than running the chain itself
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+            if (System.nanoTime() > deadline) {
+                fail("Duplicate did not wait for the request in flight");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void cache_ShouldStayBounded() throws Exception {
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        for (int i = 0; i < 5; i++) {
+            send(signup("bounded-" + i, "{}"), controller(201));
+        }
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void expiredEntries_ShouldBePurged_AndTheKeyRunAgain() throws Exception {
+        ReflectionTestUtils.setField(cache, "ttlMillis", 0L);
+        send(signup("expiring", "{}"), controller(201));
+        cache.purgeExpired();
+        assertEquals(0, cache.size());
+
+        send(signup("expiring", "{}"), controller(201));
+        assertEquals(2, executions.get());
+    }
+}
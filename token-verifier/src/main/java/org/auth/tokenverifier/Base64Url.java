@@ -0,0 +1,104 @@
+package org.auth.tokenverifier;
+
+import java.util.Arrays;
+
+// Unpadded base64url (RFC 4648 section 5) codec that works directly on a region of a
+// String and writes into caller-supplied arrays, so decoding a JWT segment needs
+// neither a substring nor a fresh byte[].
+public final class Base64Url {
+
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64Url() {
+    }
+
+    public static int decodedLength(int encodedLength) {
+        return encodedLength * 3 / 4;
+    }
+
+    public static int encodedLength(int length) {
+        return (length * 4 + 2) / 3;
+    }
+
+    // Decodes s[start, end) into dest starting at index 0 and returns the number of bytes
+    // written, or -1 if the input is not valid unpadded base64url or dest is too small.
+    // Only the canonical spelling is accepted: the unused low bits of a final partial group must
+    // be zero, otherwise several strings would decode to the same bytes.
+    public static int decode(CharSequence s, int start, int end, byte[] dest) {
+        int length = end - start;
+        if (length % 4 == 1 || decodedLength(length) > dest.length) {
+            return -1;
+        }
+        int out = 0;
+        int i = start;
+        int fullEnd = start + (length & ~3);
+        while (i < fullEnd) {
+            int bits = (value(s.charAt(i)) << 18) | (value(s.charAt(i + 1)) << 12)
+                    | (value(s.charAt(i + 2)) << 6) | value(s.charAt(i + 3));
+            if (bits < 0) {
+                return -1;
+            }
+            dest[out++] = (byte) (bits >> 16);
+            dest[out++] = (byte) (bits >> 8);
+            dest[out++] = (byte) bits;
+            i += 4;
+        }
+        int remaining = end - i;
+        if (remaining == 2) {
+            int bits = (value(s.charAt(i)) << 18) | (value(s.charAt(i + 1)) << 12);
+            if (bits < 0 || (bits & 0xffff) != 0) {
+                return -1;
+            }
+            dest[out++] = (byte) (bits >> 16);
+        } else if (remaining == 3) {
+            int bits = (value(s.charAt(i)) << 18) | (value(s.charAt(i + 1)) << 12)
+                    | (value(s.charAt(i + 2)) << 6);
+            if (bits < 0 || (bits & 0xff) != 0) {
+                return -1;
+            }
+            dest[out++] = (byte) (bits >> 16);
+            dest[out++] = (byte) (bits >> 8);
+        }
+        return out;
+    }
+
+    // Encodes src[0, length) into dest at offset and returns the new offset in dest
+    public static int encode(byte[] src, int length, byte[] dest, int offset) {
+        int i = 0;
+        int fullEnd = length - length % 3;
+        while (i < fullEnd) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dest[offset++] = ALPHABET[bits >>> 18];
+            dest[offset++] = ALPHABET[(bits >>> 12) & 0x3f];
+            dest[offset++] = ALPHABET[(bits >>> 6) & 0x3f];
+            dest[offset++] = ALPHABET[bits & 0x3f];
+            i += 3;
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xff) << 16;
+            dest[offset++] = ALPHABET[bits >>> 18];
+            dest[offset++] = ALPHABET[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dest[offset++] = ALPHABET[bits >>> 18];
+            dest[offset++] = ALPHABET[(bits >>> 12) & 0x3f];
+            dest[offset++] = ALPHABET[(bits >>> 6) & 0x3f];
+        }
+        return offset;
+    }
+
+    // Negative for characters outside the alphabet, which poisons the OR-ed group
+    private static int value(char c) {
+        return c < 128 ? DECODE[c] : -1;
+    }
+}
@@ -0,0 +1,427 @@
+package org.auth.tokenverifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Minimal JSON reader for JWT headers and claim sets. It reads straight from the decoded
+// bytes, matches member names without materializing them and only allocates the values
+// that end up in the result. Anything that is not a JSON object is rejected.
+final class ClaimsReader {
+
+    private static final byte[] ALG = bytes("alg");
+    private static final byte[] KID = bytes("kid");
+    private static final byte[] CRIT = bytes("crit");
+    private static final byte[] SUB = bytes("sub");
+    private static final byte[] ISS = bytes("iss");
+    private static final byte[] JTI = bytes("jti");
+    private static final byte[] IAT = bytes("iat");
+    private static final byte[] NBF = bytes("nbf");
+    private static final byte[] EXP = bytes("exp");
+    private static final byte[] ROLES = bytes("roles");
+
+    // Returned by readValue for nested objects, which are skipped
+    private static final Object SKIPPED = new Object();
+
+    // Arrays and objects nested inside a member value. The header is read before the signature is
+    // checked, so without a bound a token of nested brackets would recurse until StackOverflowError.
+    private static final int MAX_DEPTH = 16;
+
+    private final byte[] buf;
+    private final int end;
+    private int pos;
+    private int depth;
+
+    private ClaimsReader(byte[] buf, int length) {
+        this.buf = buf;
+        this.end = length;
+    }
+
+    record Header(String algorithm, String keyId) {
+    }
+
+    static Header readHeader(byte[] buf, int length) {
+        ClaimsReader reader = new ClaimsReader(buf, length);
+        String algorithm = null;
+        String keyId = null;
+        reader.expectObjectStart();
+        for (boolean first = true; reader.nextMember(first); first = false) {
+            int nameStart = reader.pos;
+            int nameEnd = reader.skipName();
+            if (reader.nameEquals(nameStart, nameEnd, ALG)) {
+                algorithm = reader.readString();
+            } else if (reader.nameEquals(nameStart, nameEnd, KID)) {
+                keyId = reader.readString();
+            } else if (reader.nameEquals(nameStart, nameEnd, CRIT)) {
+                // RFC 7515 4.1.11: critical extensions we do not understand must be rejected
+                throw new TokenVerificationException("Unsupported critical header");
+            } else {
+                reader.readValue();
+            }
+        }
+        reader.expectEnd();
+        if (algorithm == null) {
+            throw new TokenVerificationException("Missing alg header");
+        }
+        return new Header(algorithm, keyId);
+    }
+
+    static VerifiedToken readClaims(byte[] buf, int length, Header header) {
+        ClaimsReader reader = new ClaimsReader(buf, length);
+        String subject = null;
+        String issuer = null;
+        String tokenId = null;
+        long issuedAt = VerifiedToken.NO_TIME;
+        long notBefore = VerifiedToken.NO_TIME;
+        long expiresAt = VerifiedToken.NO_TIME;
+        List<String> roles = List.of();
+        Map<String, Object> otherClaims = null;
+
+        reader.expectObjectStart();
+        for (boolean first = true; reader.nextMember(first); first = false) {
+            int nameStart = reader.pos;
+            int nameEnd = reader.skipName();
+            if (reader.nameEquals(nameStart, nameEnd, SUB)) {
+                subject = reader.readString();
+            } else if (reader.nameEquals(nameStart, nameEnd, EXP)) {
+                expiresAt = reader.readTime();
+            } else if (reader.nameEquals(nameStart, nameEnd, IAT)) {
+                issuedAt = reader.readTime();
+            } else if (reader.nameEquals(nameStart, nameEnd, JTI)) {
+                tokenId = reader.readString();
+            } else if (reader.nameEquals(nameStart, nameEnd, ROLES)) {
+                roles = reader.readStringArray();
+            } else if (reader.nameEquals(nameStart, nameEnd, NBF)) {
+                notBefore = reader.readTime();
+            } else if (reader.nameEquals(nameStart, nameEnd, ISS)) {
+                issuer = reader.readString();
+            } else {
+                String name = reader.decodeString(nameStart, nameEnd);
+                Object value = reader.readValue();
+                if (value != SKIPPED) {
+                    if (otherClaims == null) {
+                        otherClaims = new HashMap<>();
+                    }
+                    otherClaims.put(name, value);
+                }
+            }
+        }
+        reader.expectEnd();
+        return new VerifiedToken(header.algorithm(), header.keyId(), subject, issuer, tokenId,
+                issuedAt, notBefore, expiresAt, roles,
+                otherClaims == null ? Map.of() : Collections.unmodifiableMap(otherClaims));
+    }
+
+    private void expectObjectStart() {
+        skipWhitespace();
+        if (pos >= end || buf[pos] != '{') {
+            throw malformed();
+        }
+        pos++;
+    }
+
+    // Positions the reader on the opening quote of the next member name; false at '}'
+    private boolean nextMember(boolean first) {
+        skipWhitespace();
+        if (pos < end && buf[pos] == '}') {
+            pos++;
+            return false;
+        }
+        if (!first) {
+            if (pos >= end || buf[pos] != ',') {
+                throw malformed();
+            }
+            pos++;
+            skipWhitespace();
+        }
+        if (pos >= end || buf[pos] != '"') {
+            throw malformed();
+        }
+        return true;
+    }
+
+    // Skips a member name and the following colon; returns the index of its closing quote
+    private int skipName() {
+        int nameEnd = skipStringLiteral();
+        skipWhitespace();
+        if (pos >= end || buf[pos] != ':') {
+            throw malformed();
+        }
+        pos++;
+        return nameEnd;
+    }
+
+    private boolean nameEquals(int quote, int closingQuote, byte[] name) {
+        int length = closingQuote - quote - 1;
+        if (length != name.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf[quote + 1 + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void expectEnd() {
+        skipWhitespace();
+        if (pos != end) {
+            throw malformed();
+        }
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (pos >= end) {
+            throw malformed();
+        }
+        byte b = buf[pos];
+        switch (b) {
+            case '"':
+                return readString();
+            case '[': {
+                enterNested();
+                List<Object> array = readArray();
+                depth--;
+                return array;
+            }
+            case '{':
+                enterNested();
+                skipObject();
+                depth--;
+                return SKIPPED;
+            case 't':
+                expectLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                expectLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                expectLiteral("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    private String readString() {
+        skipWhitespace();
+        if (pos >= end || buf[pos] != '"') {
+            throw malformed();
+        }
+        int start = pos;
+        int closingQuote = skipStringLiteral();
+        return decodeString(start, closingQuote);
+    }
+
+    private List<String> readStringArray() {
+        skipWhitespace();
+        if (pos >= end || buf[pos] != '[') {
+            throw malformed();
+        }
+        pos++;
+        List<String> values = new ArrayList<>(4);
+        skipWhitespace();
+        if (pos < end && buf[pos] == ']') {
+            pos++;
+            return List.of();
+        }
+        while (true) {
+            values.add(readString());
+            skipWhitespace();
+            if (pos >= end) {
+                throw malformed();
+            }
+            if (buf[pos++] == ']') {
+                return Collections.unmodifiableList(values);
+            }
+            if (buf[pos - 1] != ',') {
+                throw malformed();
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        pos++;
+        List<Object> values = new ArrayList<>(4);
+        skipWhitespace();
+        if (pos < end && buf[pos] == ']') {
+            pos++;
+            return List.of();
+        }
+        while (true) {
+            Object value = readValue();
+            if (value != SKIPPED) {
+                values.add(value);
+            }
+            skipWhitespace();
+            if (pos >= end) {
+                throw malformed();
+            }
+            if (buf[pos++] == ']') {
+                return Collections.unmodifiableList(values);
+            }
+            if (buf[pos - 1] != ',') {
+                throw malformed();
+            }
+        }
+    }
+
+    private void enterNested() {
+        if (++depth > MAX_DEPTH) {
+            throw new TokenVerificationException("Token JSON nested too deeply");
+        }
+    }
+
+    private void skipObject() {
+        expectObjectStart();
+        for (boolean first = true; nextMember(first); first = false) {
+            skipName();
+            readValue();
+        }
+    }
+
+    private long readTime() {
+        skipWhitespace();
+        Object value = readNumber();
+        if (value instanceof Long l) {
+            return l;
+        }
+        return (long) (double) (Double) value;
+    }
+
+    private Object readNumber() {
+        int start = pos;
+        boolean integral = true;
+        long value = 0;
+        boolean negative = pos < end && buf[pos] == '-';
+        if (negative) {
+            pos++;
+        }
+        int digitsStart = pos;
+        while (pos < end) {
+            byte b = buf[pos];
+            if (b >= '0' && b <= '9') {
+                if (integral) {
+                    value = value * 10 + (b - '0');
+                }
+            } else if (b == '.' || b == 'e' || b == 'E' || b == '+' || b == '-') {
+                integral = false;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        // 18 digits always fit in a long; longer integers fall back to double
+        if (pos == digitsStart || (integral && pos - digitsStart > 18)) {
+            integral = false;
+        }
+        if (integral) {
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(buf, start, pos - start, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw malformed();
+        }
+    }
+
+    private void expectLiteral(String literal) {
+        if (pos + literal.length() > end) {
+            throw malformed();
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (buf[pos + i] != literal.charAt(i)) {
+                throw malformed();
+            }
+        }
+        pos += literal.length();
+    }
+
+    // Advances past a string literal starting at pos and returns the index of its closing quote
+    private int skipStringLiteral() {
+        pos++;
+        while (pos < end) {
+            byte b = buf[pos];
+            if (b == '"') {
+                return pos++;
+            }
+            pos += b == '\\' ? 2 : 1;
+        }
+        throw malformed();
+    }
+
+    private String decodeString(int quote, int closingQuote) {
+        int start = quote + 1;
+        for (int i = start; i < closingQuote; i++) {
+            if (buf[i] == '\\') {
+                return decodeEscaped(start, closingQuote);
+            }
+        }
+        return new String(buf, start, closingQuote - start, StandardCharsets.UTF_8);
+    }
+
+    private String decodeEscaped(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        int runStart = start;
+        int i = start;
+        while (i < end) {
+            if (buf[i] != '\\') {
+                i++;
+                continue;
+            }
+            sb.append(new String(buf, runStart, i - runStart, StandardCharsets.UTF_8));
+            if (i + 1 >= end) {
+                throw malformed();
+            }
+            byte escape = buf[i + 1];
+            switch (escape) {
+                case '"', '\\', '/' -> sb.append((char) escape);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (i + 6 > end) {
+                        throw malformed();
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(
+                                new String(buf, i + 2, 4, StandardCharsets.US_ASCII), 16));
+                    } catch (NumberFormatException e) {
+                        throw malformed();
+                    }
+                    i += 4;
+                }
+                default -> throw malformed();
+            }
+            i += 2;
+            runStart = i;
+        }
+        sb.append(new String(buf, runStart, end - runStart, StandardCharsets.UTF_8));
+        return sb.toString();
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            byte b = buf[pos];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private static TokenVerificationException malformed() {
+        return new TokenVerificationException("Malformed token JSON");
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,11 @@
+package org.auth.tokenverifier;
+
+import java.security.Key;
+
+// Supplies the verification key for a token header. HMAC algorithms (HS256/384/512)
+// must resolve to a javax.crypto.SecretKey, EdDSA and ES256 to a java.security.PublicKey;
+// any other combination is rejected. Return null when the key id is unknown.
+@FunctionalInterface
+public interface KeyResolver {
+    Key resolve(String algorithm, String keyId);
+}
@@ -0,0 +1,8 @@
+package org.auth.tokenverifier;
+
+public class TokenVerificationException extends RuntimeException {
+    public TokenVerificationException(String message) {
+        // Invalid tokens are routine (expired sessions, scanners), so skip the stack trace
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,217 @@
+package org.auth.tokenverifier;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Verifies compact JWS tokens signed with HS256/HS384/HS512, EdDSA or ES256.
+//
+// Instances are thread-safe and meant to be shared. Decoded headers are cached (a service
+// sees one header per signing key), and every thread keeps its own Mac, Signature objects
+// and scratch buffers, so verifying a valid token only allocates the claim values.
+public final class TokenVerifier {
+
+    // Tokens larger than this are rejected before any decoding happens
+    public static final int MAX_TOKEN_LENGTH = 8192;
+
+    private static final int HEADER_CACHE_SIZE = 16;
+
+    private record CachedHeader(String encoded, ClaimsReader.Header header) {
+    }
+
+    private static final class Workspace {
+        byte[] signingInput = new byte[512];
+        byte[] decoded = new byte[512];
+        final byte[] signature = new byte[Base64Url.decodedLength(MAX_TOKEN_LENGTH)];
+        final byte[] expectedMac = new byte[64];
+        final Map<String, Signature> signatures = new HashMap<>();
+        Mac mac;
+        Key macKey;
+        String macAlgorithm;
+
+        byte[] signingInput(int length) {
+            if (signingInput.length < length) {
+                signingInput = new byte[length];
+            }
+            return signingInput;
+        }
+
+        byte[] decoded(int length) {
+            if (decoded.length < length) {
+                decoded = new byte[length];
+            }
+            return decoded;
+        }
+    }
+
+    private final KeyResolver keyResolver;
+    private final Clock clock;
+    private final long allowedClockSkewSeconds;
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+    private volatile CachedHeader[] headerCache = new CachedHeader[0];
+
+    public TokenVerifier(KeyResolver keyResolver) {
+        this(keyResolver, Clock.systemUTC(), Duration.ZERO);
+    }
+
+    public TokenVerifier(KeyResolver keyResolver, Clock clock, Duration allowedClockSkew) {
+        this.keyResolver = keyResolver;
+        this.clock = clock;
+        this.allowedClockSkewSeconds = allowedClockSkew.getSeconds();
+    }
+
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+            throw new TokenVerificationException("Missing or oversized token");
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new TokenVerificationException("Malformed token");
+        }
+
+        Workspace workspace = workspaces.get();
+        ClaimsReader.Header header = header(token, firstDot, workspace);
+
+        Key key = keyResolver.resolve(header.algorithm(), header.keyId());
+        if (key == null) {
+            throw new TokenVerificationException("Unknown signing key");
+        }
+        verifySignature(token, secondDot, header.algorithm(), key, workspace);
+
+        // Only authenticated bytes reach the claims parser
+        byte[] payload = workspace.decoded(Base64Url.decodedLength(secondDot - firstDot - 1));
+        int payloadLength = Base64Url.decode(token, firstDot + 1, secondDot, payload);
+        if (payloadLength < 0) {
+            throw new TokenVerificationException("Malformed token payload");
+        }
+        VerifiedToken verified = ClaimsReader.readClaims(payload, payloadLength, header);
+        checkTimeWindow(verified);
+        return verified;
+    }
+
+    private ClaimsReader.Header header(String token, int length, Workspace workspace) {
+        CachedHeader[] cache = headerCache;
+        for (CachedHeader cached : cache) {
+            if (cached.encoded().length() == length && token.regionMatches(0, cached.encoded(), 0, length)) {
+                return cached.header();
+            }
+        }
+
+        byte[] decoded = workspace.decoded(Base64Url.decodedLength(length));
+        int decodedLength = Base64Url.decode(token, 0, length, decoded);
+        if (decodedLength < 0) {
+            throw new TokenVerificationException("Malformed token header");
+        }
+        ClaimsReader.Header header = ClaimsReader.readHeader(decoded, decodedLength);
+
+        // Copy-on-write; when full the oldest entry is dropped, so junk headers cannot grow it
+        int keep = Math.min(cache.length, HEADER_CACHE_SIZE - 1);
+        CachedHeader[] updated = new CachedHeader[keep + 1];
+        System.arraycopy(cache, cache.length - keep, updated, 0, keep);
+        updated[keep] = new CachedHeader(token.substring(0, length), header);
+        headerCache = updated;
+        return header;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void verifySignature(String token, int signedLength, String algorithm, Key key, Workspace workspace) {
+        byte[] signature = workspace.signature;
+        int signatureLength = Base64Url.decode(token, signedLength + 1, token.length(), signature);
+        if (signatureLength <= 0) {
+            throw new TokenVerificationException("Malformed token signature");
+        }
+        // Compact JWS is pure ASCII, so the low-byte copy is exact and allocation-free
+        byte[] signingInput = workspace.signingInput(signedLength);
+        token.getBytes(0, signedLength, signingInput, 0);
+
+        try {
+            boolean valid = switch (algorithm) {
+                case "HS256" -> verifyMac("HmacSHA256", key, signingInput, signedLength, signature, signatureLength, workspace);
+                case "HS384" -> verifyMac("HmacSHA384", key, signingInput, signedLength, signature, signatureLength, workspace);
+                case "HS512" -> verifyMac("HmacSHA512", key, signingInput, signedLength, signature, signatureLength, workspace);
+                case "EdDSA" -> verifySignature("EdDSA", key, signingInput, signedLength, signature, signatureLength, workspace);
+                case "ES256" -> signatureLength == 64 && verifySignature("SHA256withECDSAinP1363Format",
+                        key, signingInput, signedLength, signature, signatureLength, workspace);
+                default -> throw new TokenVerificationException("Unsupported algorithm: " + algorithm);
+            };
+            if (!valid) {
+                throw new TokenVerificationException("Invalid token signature");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new TokenVerificationException("Invalid token signature");
+        }
+    }
+
+    private static boolean verifyMac(String jcaName, Key key, byte[] input, int inputLength,
+                                     byte[] signature, int signatureLength, Workspace workspace)
+            throws GeneralSecurityException {
+        // Refusing public keys here is what stops HS256-with-public-key confusion attacks
+        if (!(key instanceof SecretKey)) {
+            throw new TokenVerificationException("Key does not match token algorithm");
+        }
+        Mac mac = workspace.mac;
+        if (mac == null || workspace.macKey != key || !jcaName.equals(workspace.macAlgorithm)) {
+            mac = Mac.getInstance(jcaName);
+            mac.init(key);
+            workspace.mac = mac;
+            workspace.macKey = key;
+            workspace.macAlgorithm = jcaName;
+        }
+        mac.update(input, 0, inputLength);
+        int macLength = mac.getMacLength();
+        mac.doFinal(workspace.expectedMac, 0);
+        return constantTimeEquals(workspace.expectedMac, macLength, signature, signatureLength);
+    }
+
+    private static boolean verifySignature(String jcaName, Key key, byte[] input, int inputLength,
+                                           byte[] signature, int signatureLength, Workspace workspace)
+            throws GeneralSecurityException {
+        if (!(key instanceof PublicKey publicKey)) {
+            throw new TokenVerificationException("Key does not match token algorithm");
+        }
+        Signature verifier = workspace.signatures.get(jcaName);
+        if (verifier == null) {
+            verifier = newSignature(jcaName);
+            workspace.signatures.put(jcaName, verifier);
+        }
+        verifier.initVerify(publicKey);
+        verifier.update(input, 0, inputLength);
+        return verifier.verify(signature, 0, signatureLength);
+    }
+
+    private static Signature newSignature(String jcaName) {
+        try {
+            return Signature.getInstance(jcaName);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JCA provider lacks " + jcaName, e);
+        }
+    }
+
+    // Runs in time that depends only on the lengths, never on where the bytes differ
+    static boolean constantTimeEquals(byte[] expected, int expectedLength, byte[] actual, int actualLength) {
+        int diff = expectedLength ^ actualLength;
+        for (int i = 0; i < expectedLength; i++) {
+            diff |= expected[i] ^ actual[i < actualLength ? i : 0];
+        }
+        return diff == 0;
+    }
+
+    private void checkTimeWindow(VerifiedToken token) {
+        long now = clock.millis() / 1000;
+        if (token.getExpiresAt() != VerifiedToken.NO_TIME && now >= token.getExpiresAt() + allowedClockSkewSeconds) {
+            throw new TokenVerificationException("Token expired");
+        }
+        if (token.getNotBefore() != VerifiedToken.NO_TIME && now + allowedClockSkewSeconds < token.getNotBefore()) {
+            throw new TokenVerificationException("Token not yet valid");
+        }
+    }
+}
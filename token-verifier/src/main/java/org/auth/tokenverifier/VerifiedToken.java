@@ -0,0 +1,84 @@
+package org.auth.tokenverifier;
+
+import java.util.List;
+import java.util.Map;
+
+// Claims of a token whose signature and time window have been checked.
+// Time claims are epoch seconds; NO_TIME marks an absent claim.
+public final class VerifiedToken {
+
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private final String algorithm;
+    private final String keyId;
+    private final String subject;
+    private final String issuer;
+    private final String tokenId;
+    private final long issuedAt;
+    private final long notBefore;
+    private final long expiresAt;
+    private final List<String> roles;
+    private final Map<String, Object> otherClaims;
+
+    VerifiedToken(String algorithm, String keyId, String subject, String issuer, String tokenId,
+                  long issuedAt, long notBefore, long expiresAt,
+                  List<String> roles, Map<String, Object> otherClaims) {
+        this.algorithm = algorithm;
+        this.keyId = keyId;
+        this.subject = subject;
+        this.issuer = issuer;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.notBefore = notBefore;
+        this.expiresAt = expiresAt;
+        this.roles = roles;
+        this.otherClaims = otherClaims;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    // The "jti" claim
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getNotBefore() {
+        return notBefore;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    // Claims other than sub, iss, jti, iat, nbf, exp and roles; strings, numbers,
+    // booleans and string arrays are kept, nested objects are skipped
+    public Object getClaim(String name) {
+        return otherClaims.get(name);
+    }
+
+    public Map<String, Object> getOtherClaims() {
+        return otherClaims;
+    }
+}
@@ -0,0 +1,233 @@
+package org.auth.tokenverifier;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenVerifierTest {
+
+    private static final SecretKey SECRET = Keys.hmacShaKeyFor(
+            "testSecretKeyForTestingPurposesOnlyDoNotUseInProduction123456789".getBytes(StandardCharsets.UTF_8));
+
+    private static Date inSeconds(long seconds) {
+        return new Date(System.currentTimeMillis() + seconds * 1000);
+    }
+
+    @Test
+    void verify_ShouldReturnClaims_ForHmacTokenFromJjwt() {
+        String token = Jwts.builder()
+                .subject("test@example.com")
+                .id("token-1")
+                .issuedAt(new Date())
+                .expiration(inSeconds(60))
+                .claim("roles", List.of("ROLE_USER", "ROLE_ADMIN"))
+                .claim("tenant", "acme")
+                .claim("nested", java.util.Map.of("a", 1))
+                .signWith(SECRET, Jwts.SIG.HS256)
+                .compact();
+
+        VerifiedToken verified = new TokenVerifier((alg, kid) -> SECRET).verify(token);
+
+        assertEquals("HS256", verified.getAlgorithm());
+        assertEquals("test@example.com", verified.getSubject());
+        assertEquals("token-1", verified.getTokenId());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), verified.getRoles());
+        assertEquals("acme", verified.getClaim("tenant"));
+        assertNull(verified.getClaim("nested"));
+        assertTrue(verified.getExpiresAt() > verified.getIssuedAt());
+    }
+
+    @Test
+    void verify_ShouldAcceptHs512() {
+        String token = Jwts.builder().subject("a").signWith(SECRET).compact();
+
+        assertEquals("HS512", new TokenVerifier((alg, kid) -> SECRET).verify(token).getAlgorithm());
+    }
+
+    @Test
+    void verify_ShouldAcceptEd25519AndEs256_ByKid() {
+        KeyPair ed = Jwks.CRV.Ed25519.keyPair().build();
+        KeyPair ec = Jwts.SIG.ES256.keyPair().build();
+        TokenVerifier verifier = new TokenVerifier((alg, kid) -> switch (kid) {
+            case "ed" -> ed.getPublic();
+            case "ec" -> ec.getPublic();
+            default -> null;
+        });
+
+        String edToken = Jwts.builder().header().keyId("ed").and()
+                .subject("ed-user").signWith(ed.getPrivate(), Jwts.SIG.EdDSA).compact();
+        String ecToken = Jwts.builder().header().keyId("ec").and()
+                .subject("ec-user").signWith(ec.getPrivate(), Jwts.SIG.ES256).compact();
+        String unknownKid = Jwts.builder().header().keyId("other").and()
+                .subject("x").signWith(ed.getPrivate(), Jwts.SIG.EdDSA).compact();
+
+        assertEquals("ed-user", verifier.verify(edToken).getSubject());
+        assertEquals("ed", verifier.verify(edToken).getKeyId());
+        assertEquals("ec-user", verifier.verify(ecToken).getSubject());
+        assertThrows(TokenVerificationException.class, () -> verifier.verify(unknownKid));
+    }
+
+    @Test
+    void verify_ShouldReject_TamperedPayload() {
+        String token = Jwts.builder().subject("alice").signWith(SECRET, Jwts.SIG.HS256).compact();
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin\"}".getBytes(StandardCharsets.UTF_8));
+
+        TokenVerifier verifier = new TokenVerifier((alg, kid) -> SECRET);
+
+        assertThrows(TokenVerificationException.class,
+                () -> verifier.verify(parts[0] + "." + forgedPayload + "." + parts[2]));
+    }
+
+    @Test
+    void verify_ShouldReject_ExpiredToken_UnlessWithinSkew() {
+        String token = Jwts.builder().subject("alice").expiration(inSeconds(-30))
+                .signWith(SECRET, Jwts.SIG.HS256).compact();
+
+        assertThrows(TokenVerificationException.class,
+                () -> new TokenVerifier((alg, kid) -> SECRET).verify(token));
+        assertEquals("alice", new TokenVerifier((alg, kid) -> SECRET, Clock.systemUTC(), Duration.ofMinutes(1))
+                .verify(token).getSubject());
+    }
+
+    @Test
+    void verify_ShouldReject_NotYetValidToken() {
+        String token = Jwts.builder().subject("alice").notBefore(inSeconds(3600))
+                .signWith(SECRET, Jwts.SIG.HS256).compact();
+        Clock later = Clock.fixed(Instant.now().plusSeconds(7200), ZoneOffset.UTC);
+
+        assertThrows(TokenVerificationException.class,
+                () -> new TokenVerifier((alg, kid) -> SECRET).verify(token));
+        assertEquals("alice", new TokenVerifier((alg, kid) -> SECRET, later, Duration.ZERO)
+                .verify(token).getSubject());
+    }
+
+    @Test
+    void verify_ShouldReject_HmacTokenKeyedWithPublicKey() throws Exception {
+        KeyPair ed = Jwks.CRV.Ed25519.keyPair().build();
+        // Classic algorithm confusion: HMAC over the token using the public key bytes as secret
+        String signingInput = b64("{\"alg\":\"HS256\",\"kid\":\"ed\"}") + "." + b64("{\"sub\":\"admin\"}");
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(ed.getPublic().getEncoded(), "HmacSHA256"));
+        String token = signingInput + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(
+                mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+
+        TokenVerifier verifier = new TokenVerifier((alg, kid) -> ed.getPublic());
+
+        assertThrows(TokenVerificationException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void verify_ShouldReject_UnsignedAndMalformedTokens() {
+        TokenVerifier verifier = new TokenVerifier((alg, kid) -> SECRET);
+        String none = b64("{\"alg\":\"none\"}") + "." + b64("{\"sub\":\"admin\"}") + ".";
+
+        assertThrows(TokenVerificationException.class, () -> verifier.verify(none));
+        assertThrows(TokenVerificationException.class, () -> verifier.verify("not-a-token"));
+        assertThrows(TokenVerificationException.class, () -> verifier.verify("a.b.c.d"));
+        assertThrows(TokenVerificationException.class, () -> verifier.verify(null));
+        assertThrows(TokenVerificationException.class, () -> verifier.verify("e30.e30.!!!"));
+    }
+
+    @Test
+    void verify_ShouldReject_CriticalHeader() {
+        String token = b64("{\"alg\":\"HS256\",\"crit\":[\"exp\"]}") + "." + b64("{}") + ".AAAA";
+
+        assertThrows(TokenVerificationException.class,
+                () -> new TokenVerifier((alg, kid) -> SECRET).verify(token));
+    }
+
+    @Test
+    void verify_ShouldReject_DeeplyNestedHeader_BeforeCheckingTheSignature() {
+        TokenVerifier verifier = new TokenVerifier((alg, kid) -> SECRET);
+        String arrays = b64("{\"alg\":\"HS256\",\"x\":" + "[".repeat(2900) + "]".repeat(2900) + "}");
+        String objects = b64("{\"alg\":\"HS256\",\"x\":" + "{\"a\":".repeat(900) + "1" + "}".repeat(900) + "}");
+        String shallow = b64("{\"alg\":\"HS256\",\"x\":" + "[".repeat(16) + "]".repeat(16) + "}");
+
+        TokenVerificationException nested = assertThrows(TokenVerificationException.class,
+                () -> verifier.verify(arrays + "." + b64("{}") + ".AAAA"));
+        assertEquals("Token JSON nested too deeply", nested.getMessage());
+        assertEquals("Token JSON nested too deeply", assertThrows(TokenVerificationException.class,
+                () -> verifier.verify(objects + "." + b64("{}") + ".AAAA")).getMessage());
+        // Within the limit the header parses and the forged signature is what fails
+        TokenVerificationException signature = assertThrows(TokenVerificationException.class,
+                () -> verifier.verify(shallow + "." + b64("{}") + ".AAAA"));
+        assertNotEquals("Token JSON nested too deeply", signature.getMessage());
+    }
+
+    @Test
+    void claimsReader_ShouldDecodeEscapesAndNumbers() {
+        byte[] json = ("{\"sub\":\"a\\\"b\\u00e9\\n\",\"exp\":1.7E9,\"iat\":123,"
+                + "\"flag\":true,\"none\":null,\"list\":[1,\"x\",{\"y\":2}]}").getBytes(StandardCharsets.UTF_8);
+
+        VerifiedToken claims = ClaimsReader.readClaims(json, json.length, new ClaimsReader.Header("HS256", null));
+
+        assertEquals("a\"bé\n", claims.getSubject());
+        assertEquals(1_700_000_000L, claims.getExpiresAt());
+        assertEquals(123L, claims.getIssuedAt());
+        assertEquals(Boolean.TRUE, claims.getClaim("flag"));
+        assertTrue(claims.getOtherClaims().containsKey("none"));
+        assertEquals(List.of(1L, "x"), claims.getClaim("list"));
+    }
+
+    @Test
+    void base64Url_ShouldRoundTripAllLengths() {
+        for (int length = 0; length < 70; length++) {
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (i * 37 + length);
+            }
+            String expected = Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+
+            byte[] encoded = new byte[Base64Url.encodedLength(length)];
+            int encodedLength = Base64Url.encode(data, length, encoded, 0);
+            byte[] decoded = new byte[length];
+
+            assertEquals(expected, new String(encoded, 0, encodedLength, StandardCharsets.US_ASCII));
+            assertEquals(length, Base64Url.decode(expected, 0, expected.length(), decoded));
+            assertArrayEquals(data, decoded);
+        }
+    }
+
+    @Test
+    void base64Url_ShouldReject_NonCanonicalFinalCharacter() {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        // 32 bytes leave 2 unused bits in the last character, 31 bytes leave 4
+        for (int length : new int[]{31, 32}) {
+            byte[] data = new byte[length];
+            data[length - 1] = (byte) 0xa5;
+            String canonical = Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+            int last = alphabet.indexOf(canonical.charAt(canonical.length() - 1));
+            int unusedBits = length == 32 ? 2 : 4;
+            byte[] decoded = new byte[length];
+
+            assertEquals(length, Base64Url.decode(canonical, 0, canonical.length(), decoded));
+            for (int low = 1; low < 1 << unusedBits; low++) {
+                String variant = canonical.substring(0, canonical.length() - 1) + alphabet.charAt(last | low);
+                assertEquals(-1, Base64Url.decode(variant, 0, variant.length(), decoded), variant);
+            }
+        }
+    }
+
+    private static String b64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}